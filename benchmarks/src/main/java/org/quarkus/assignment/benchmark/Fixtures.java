@@ -0,0 +1,53 @@
+package org.quarkus.assignment.benchmark;
+
+import org.quarkus.assignment.model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic product data shared by the suites.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static List<Product> products(int size) {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Product p = new Product();
+            p.setId((long) i + 1);
+            p.setName("Product " + i);
+            p.setDescription("Description of product " + i + " with a few more words to look realistic");
+            p.setPrice(1.0 + (i % 1000) * 0.25);
+            p.setQuantity(i % 500);
+            products.add(p);
+        }
+        return products;
+    }
+
+    /** Patches alternating between name-only, price/quantity and full updates. */
+    static List<Product> patches(int size) {
+        List<Product> patches = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Product p = new Product();
+            p.setId((long) i + 1);
+            switch (i % 3) {
+                case 0 -> p.setName("Renamed " + i);
+                case 1 -> {
+                    p.setPrice(2.5 * i);
+                    p.setQuantity(i);
+                }
+                default -> {
+                    p.setName("Renamed " + i);
+                    p.setDescription("New description " + i);
+                    p.setPrice(2.5 * i);
+                    p.setQuantity(i);
+                }
+            }
+            patches.add(p);
+        }
+        return patches;
+    }
+}
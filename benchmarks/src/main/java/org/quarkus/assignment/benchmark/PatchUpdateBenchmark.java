@@ -0,0 +1,53 @@
+package org.quarkus.assignment.benchmark;
+
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.persistence.ProductRepository;
+import org.quarkus.assignment.util.ProductETags;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request CPU work of turning patches into updates and rendering them to BSON, as the driver does before
+ * sending them: the upsert pipeline of a plain PUT /products/{id}, and the $set update of an If-Match PUT.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatchUpdateBenchmark {
+
+    @Param({"1", "1000"})
+    int size;
+
+    List<Product> patches;
+
+    @Setup
+    public void setup() {
+        patches = Fixtures.patches(size);
+    }
+
+    @Benchmark
+    public void toUpsertPipeline(Blackhole bh) {
+        long firstVersion = ProductETags.firstVersion();
+        for (Product patch : patches) {
+            for (Bson stage : ProductRepository.toUpsertPipeline(patch, firstVersion)) {
+                bh.consume(stage.toBsonDocument());
+            }
+        }
+    }
+
+    @Benchmark
+    public void toSetUpdate(Blackhole bh) {
+        for (Product patch : patches) {
+            BsonDocument update = ProductRepository.toSetUpdate(patch).toBsonDocument();
+            bh.consume(update);
+        }
+    }
+}
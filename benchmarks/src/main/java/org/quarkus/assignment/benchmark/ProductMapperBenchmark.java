@@ -0,0 +1,37 @@
+package org.quarkus.assignment.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.quarkus.assignment.dto.ProductResponse;
+import org.quarkus.assignment.mapper.ProductMapper;
+import org.quarkus.assignment.model.Product;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@link ProductMapper#toResponse(Product)} over a list, as done by the list endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductMapperBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    List<Product> products;
+
+    @Setup
+    public void setup() {
+        products = Fixtures.products(size);
+    }
+
+    @Benchmark
+    public List<ProductResponse> toResponseList() {
+        return products.stream().map(ProductMapper::toResponse).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,70 @@
+package org.quarkus.assignment.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoClientSettings;
+import io.vertx.core.buffer.Buffer;
+import org.bson.BsonBinaryReader;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.openjdk.jmh.annotations.*;
+import org.quarkus.assignment.dto.ProductResponse;
+import org.quarkus.assignment.mapper.ProductMapper;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.util.RawProductJson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /products body from the BSON the driver hands over, both ways the application can build it: decoding into
+ * {@code Product} with the POJO codec, mapping and serializing with Jackson, or transcoding the raw documents with
+ * {@link RawProductJson} ({@code app.products.raw-reads.enabled}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RawReadBenchmark {
+
+    @Param({"100", "10000"})
+    int size;
+
+    ObjectMapper mapper;
+    Codec<Product> productCodec;
+    List<RawBsonDocument> documents;
+
+    @Setup
+    public void setup() {
+        mapper = new ObjectMapper();
+        productCodec = CodecRegistries.fromRegistries(MongoClientSettings.getDefaultCodecRegistry(),
+                CodecRegistries.fromProviders(PojoCodecProvider.builder().automatic(true).build())).get(Product.class);
+        documents = new ArrayList<>(size);
+        for (Product p : Fixtures.products(size)) {
+            p.setVersion(1L);
+            documents.add(new RawBsonDocument(p, productCodec));
+        }
+    }
+
+    @Benchmark
+    public byte[] decodeMapSerialize() throws JsonProcessingException {
+        List<ProductResponse> responses = new ArrayList<>(documents.size());
+        for (RawBsonDocument document : documents) {
+            try (BsonBinaryReader reader = new BsonBinaryReader(document.getByteBuffer().asNIO())) {
+                responses.add(ProductMapper.toResponse(productCodec.decode(reader, DecoderContext.builder().build())));
+            }
+        }
+        return mapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public Buffer rawTranscode() {
+        return RawProductJson.list(documents).getBody();
+    }
+}
@@ -0,0 +1,52 @@
+package org.quarkus.assignment.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.quarkus.assignment.dto.CreateProductsResponse;
+import org.quarkus.assignment.dto.ProductResponse;
+import org.quarkus.assignment.dto.SummaryDto;
+import org.quarkus.assignment.mapper.ProductMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Jackson serialization of the response bodies returned by POST and GET /products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    int size;
+
+    ObjectMapper mapper;
+    List<ProductResponse> responses;
+    CreateProductsResponse createResponse;
+
+    @Setup
+    public void setup() {
+        mapper = new ObjectMapper();
+        responses = Fixtures.products(size).stream().map(ProductMapper::toResponse).collect(Collectors.toList());
+        createResponse = CreateProductsResponse.builder()
+                .summary(SummaryDto.builder().created(size).updated(0).duplicates(0).total(size).build())
+                .items(responses)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] productResponseList() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public byte[] createProductsResponse() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(createResponse);
+    }
+}
@@ -0,0 +1,35 @@
+package org.quarkus.assignment.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.util.ProductValidation;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The creation validation used by POST /products (all elements valid, so the whole list is scanned).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    List<Product> products;
+
+    @Setup
+    public void setup() {
+        products = Fixtures.products(size);
+    }
+
+    @Benchmark
+    public boolean anyInvalid() {
+        return products.stream().anyMatch(p -> !ProductValidation.isValidForCreate(p));
+    }
+}
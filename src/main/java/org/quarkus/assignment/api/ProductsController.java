@@ -1,18 +1,44 @@
 package org.quarkus.assignment.api;
 
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+import org.jboss.resteasy.reactive.common.util.RestMediaType;
+import org.quarkus.assignment.cache.CatalogSnapshotCache;
 import org.quarkus.assignment.mapper.ProductMapper;
 import org.quarkus.assignment.dto.*;
 import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.ProductFilter;
+import org.quarkus.assignment.model.ProductSortField;
 import org.quarkus.assignment.model.SortOrder;
+import org.quarkus.assignment.service.BlockingProductService;
+import org.quarkus.assignment.service.CsvImportService;
+import org.quarkus.assignment.service.ProductIngestService;
 import org.quarkus.assignment.service.ProductService;
+import org.quarkus.assignment.service.ProductStatsService;
+import org.quarkus.assignment.util.FilterCursor;
+import org.quarkus.assignment.util.ProductETags;
+import org.quarkus.assignment.util.ProductFields;
+import org.quarkus.assignment.util.ProductValidation;
+import org.quarkus.assignment.util.RawProductJson;
 import org.quarkus.assignment.util.UriConstants;
 
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -23,61 +49,264 @@ import java.util.stream.Collectors;
 @Consumes(MediaType.APPLICATION_JSON)
 public class ProductsController {
 
+    /** Page size used when only a cursor is supplied. */
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    /** Upper bound on a single page to keep response memory bounded. */
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    /** Number of search hits returned when no limit is given. */
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+
+    /** Upper bound on search hits per request. */
+    private static final int MAX_SEARCH_LIMIT = 100;
+
+    /** Upper bound on price histogram buckets per stats request. */
+    private static final int MAX_PRICE_BUCKETS = 50;
+
+    /** Upper bound on ids resolved by one batch request. */
+    private static final int MAX_BATCH_SIZE = 1000;
+
     @Inject
     ProductService productService;
 
+    @Inject
+    ProductIngestService ingestService;
+
+    @Inject
+    CsvImportService csvImportService;
+
+    @Inject
+    ProductStatsService statsService;
+
+    @Inject
+    BlockingProductService blockingService;
+
+    @Inject
+    CatalogSnapshotCache snapshots;
+
     /**
      * Creates new products.
      * @param products list of products to create
+     * @param echo whether the submitted items are echoed back in the response
      * @return response containing summary and created items
      */
     @POST
-    public Uni<Response> createProducts(List<Product> products) {
+    public Uni<Response> createProducts(List<Product> products, @QueryParam("echo") @DefaultValue("true") boolean echo) {
         if (products == null || products.isEmpty()) {
             throw new BadRequestException("Body must be a non-empty array of products");
         }
-        boolean anyInvalid = products.stream().anyMatch(p -> p == null || p.getId() == null || p.getId() == 0 || p.getName() == null || p.getPrice() == null || p.getQuantity() == null);
+        boolean anyInvalid = products.stream().anyMatch(p -> !ProductValidation.isValidForCreate(p));
         if (anyInvalid) {
-            throw new BadRequestException("Each product requires field(s) [id, name, price, quantity]");
+            throw new BadRequestException(ProductValidation.REQUIRED_FIELDS_MESSAGE);
         }
         return productService.createProducts(products)
             .onItem().transform(summary -> {
-                CreateProductsResponse body = CreateProductsResponse.builder()
-                        .summary(summary)
-                        .items(products.stream().map(ProductMapper::toResponse).collect(Collectors.toList()))
-                        .build();
-                if (summary.getCreated() == 0) {
-                    return Response.status(Response.Status.CONFLICT).entity(body).build();
+                CreateProductsResponse.CreateProductsResponseBuilder body = CreateProductsResponse.builder().summary(summary);
+                if (echo) {
+                    body.items(products.stream().map(ProductMapper::toResponse).collect(Collectors.toList()));
                 }
-                return Response.status(Response.Status.CREATED).entity(body).build();
+                return toCreatedResponse(body.build());
             });
     }
 
     /**
-     * Returns all products or a single product by id.
+     * Creates products from a JSON array parsed incrementally, writing in fixed-size batches.
+     * Only the summary is returned; submitted items are never echoed.
+     * @param body request body holding a JSON array of products
+     * @return response containing the summary
+     */
+    @POST
+    @Path(UriConstants.INGEST)
+    @Blocking
+    public Response ingestProducts(InputStream body) {
+        SummaryDto summary = ingestService.ingest(body);
+        return toCreatedResponse(CreateProductsResponse.builder().summary(summary).build());
+    }
+
+    /**
+     * Imports products from the CSV file configured by {@code app.csv.path}.
+     * @return response with the import report
+     */
+    @POST
+    @Path(UriConstants.IMPORT_CSV)
+    @Blocking
+    public Response importCsv() {
+        return Response.ok(csvImportService.importConfiguredFile()).build();
+    }
+
+    private static Response toCreatedResponse(CreateProductsResponse body) {
+        if (body.getSummary().getCreated() == 0) {
+            return Response.status(Response.Status.CONFLICT).entity(body).build();
+        }
+        return Response.status(Response.Status.CREATED).entity(body).build();
+    }
+
+    /**
+     * Returns all products, a keyset page of products, or a single product by id.
+     * Every variant carries an ETag; a matching If-None-Match yields 304 without a body.
+     * The full list is served from the catalog snapshot when one is current. With raw reads enabled, full products
+     * are transcoded from BSON to JSON directly instead of being decoded and mapped.
      * @param id optional product id to fetch
-     * @return response with list or single product
+     * @param after optional cursor; only products with a greater id are returned
+     * @param limit optional page size; enables paginated mode
+     * @param fields optional comma-separated fields to return; only those are read from Mongo
+     * @param acceptEncoding Accept-Encoding header, used to pick the gzip snapshot
+     * @param request request used to evaluate If-None-Match
+     * @return response with list, page or single product
      */
     @GET
-    public Uni<Response> getProducts(@QueryParam("id") Long id) {
+    public Uni<Response> getProducts(@QueryParam("id") Long id, @QueryParam("after") Long after, @QueryParam("limit") Integer limit,
+                                     @QueryParam("fields") String fields,
+                                     @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding, @Context Request request) {
+        Set<String> sparse = ProductFields.parse(fields);
+        if (id == null && (after != null || limit != null)) {
+            int size = limit != null ? limit : DEFAULT_PAGE_SIZE;
+            if (size <= 0 || size > MAX_PAGE_SIZE) {
+                throw new BadRequestException("The value of limit field must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            if (useRawReads(sparse)) {
+                return productService.getProductsAfterRaw(after, size)
+                    .onItem().transform(documents -> conditional(request, RawProductJson.page(documents, size)));
+            }
+            return productsAfter(after, size, sparse)
+                .onItem().transform(list -> conditional(request, ProductETags.of(list), () -> ProductPageResponse.builder()
+                        .items(toBodies(list, sparse))
+                        .nextCursor(list.size() == size ? list.get(list.size() - 1).getId() : null)
+                        .build()));
+        }
         if (id == null) {
-            return productService.getAllProducts()
-                .onItem().transform(list -> Response.ok(list.stream().map(ProductMapper::toResponse).collect(Collectors.toList())).build());
+            CatalogSnapshotCache.Snapshot snapshot = sparse == null ? snapshots.get(CatalogSnapshotCache.View.ALL) : null;
+            if (snapshot != null) {
+                return Uni.createFrom().item(fromSnapshot(snapshot, acceptEncoding, request));
+            }
+            if (useRawReads(sparse)) {
+                return productService.getAllProductsRaw().onItem().transform(documents -> conditional(request, RawProductJson.list(documents)));
+            }
+            return allProducts(sparse)
+                .onItem().transform(list -> conditional(request, ProductETags.of(list), () -> toBodies(list, sparse)));
+        }
+        if (useRawReads(sparse) && productService.peekCachedProduct(id) == null) {
+            return productService.getProductByIdRaw(id)
+                .onItem().ifNull().failWith(() -> new NotFoundException("Product id " + id + " doesn't exist"))
+                .onItem().transform(document -> conditional(request, RawProductJson.one(document)));
         }
-        return productService.getProductById(id)
+        return productById(id, sparse)
             .onItem().ifNull().failWith(() -> new NotFoundException("Product id " + id + " doesn't exist"))
-            .onItem().transform(p -> Response.ok(ProductMapper.toResponse(p)).build());
+            .onItem().transform(p -> conditional(request, ProductETags.of(p),
+                    () -> sparse == null ? ProductMapper.toResponse(p) : ProductMapper.toSparseResponse(p, sparse)));
+    }
+
+    /** Raw reads serve full products in reactive mode; a near-cache hit on a lookup by id is still served mapped. */
+    private boolean useRawReads(Set<String> sparse) {
+        return sparse == null && productService.isRawReadsEnabled() && !blockingService.isActive();
+    }
+
+    // Reads below go to the blocking service on virtual threads when that mode is active; sparse reads stay reactive
+
+    private Uni<List<Product>> productsAfter(Long after, int size, Set<String> sparse) {
+        if (sparse != null) {
+            return productService.getProductsAfter(after, size, sparse);
+        }
+        if (blockingService.isActive()) {
+            return blockingService.run(() -> blockingService.getProductsAfter(after, size));
+        }
+        return productService.getProductsAfter(after, size);
+    }
+
+    private Uni<List<Product>> allProducts(Set<String> sparse) {
+        if (sparse != null) {
+            return productService.getAllProducts(sparse);
+        }
+        if (blockingService.isActive()) {
+            return blockingService.run(blockingService::getAllProducts);
+        }
+        return productService.getAllProducts();
+    }
+
+    private Uni<Product> productById(long id, Set<String> sparse) {
+        if (sparse != null) {
+            return productService.getProductById(id, sparse);
+        }
+        if (blockingService.isActive()) {
+            return blockingService.run(() -> blockingService.getProductById(id));
+        }
+        return productService.getProductById(id);
+    }
+
+    private Uni<List<Product>> sortedByPrice(SortOrder order, Set<String> sparse) {
+        if (sparse != null) {
+            return productService.getAllSortedByPrice(order, sparse);
+        }
+        if (blockingService.isActive()) {
+            return blockingService.run(() -> blockingService.getAllSortedByPrice(order));
+        }
+        return productService.getAllSortedByPrice(order);
+    }
+
+    private static List<ProductResponse> toResponses(List<Product> products) {
+        return products.stream().map(ProductMapper::toResponse).collect(Collectors.toList());
+    }
+
+    private static List<?> toBodies(List<Product> products, Set<String> fields) {
+        if (fields == null) {
+            return toResponses(products);
+        }
+        return products.stream().map(p -> ProductMapper.toSparseResponse(p, fields)).collect(Collectors.toList());
+    }
+
+    private static Response fromSnapshot(CatalogSnapshotCache.Snapshot snapshot, String acceptEncoding, Request request) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        EntityTag tag = snapshot.tag(gzip);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        Response.ResponseBuilder response = notModified != null ? notModified : Response.ok(snapshot.body(gzip), MediaType.APPLICATION_JSON_TYPE);
+        if (gzip && notModified == null) {
+            response.encoding("gzip");
+        }
+        return response.tag(tag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static Response conditional(Request request, EntityTag tag, Supplier<Object> body) {
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.tag(tag).build();
+        }
+        return Response.ok(body.get()).tag(tag).build();
+    }
+
+    private static Response conditional(Request request, RawProductJson.Rendered rendered) {
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(rendered.getTag());
+        if (notModified != null) {
+            return notModified.tag(rendered.getTag()).build();
+        }
+        return Response.ok(rendered.getBody(), MediaType.APPLICATION_JSON_TYPE).tag(rendered.getTag()).build();
     }
 
     /**
-     * Upserts a product by id.
+     * Upserts a product by id. With an If-Match header the update only applies to an existing
+     * product whose current ETag matches ({@code *} matches any); otherwise 412 is returned.
      * @param id product id path parameter
+     * @param ifMatch optional ETag the client last saw
      * @param product product payload to upsert
      * @return response with summary and item
      */
     @PUT
     @Path(UriConstants.ID)
-    public Uni<Response> upsertProduct(@PathParam("id") long id, Product product) {
+    public Uni<Response> upsertProduct(@PathParam("id") long id, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch, Product product) {
         if (product == null) {
             throw new BadRequestException("Body must be a product object");
         }
@@ -85,6 +314,25 @@ public class ProductsController {
             throw new BadRequestException("Body id must match path id");
         }
         product.setId(id);
+        product.setVersion(null);
+        if (ifMatch != null) {
+            Uni<Product> conditional;
+            if (ProductETags.ANY.equals(ifMatch.trim())) {
+                // "*" still requires a current representation: a missing product is 412, not created
+                conditional = productService.patchIfPresent(product);
+            } else {
+                long expectedVersion = ProductETags.parseVersion(ifMatch);
+                if (expectedVersion < 0) {
+                    throw new ClientErrorException("If-Match must be an ETag issued for product id " + id, Response.Status.PRECONDITION_FAILED);
+                }
+                conditional = productService.patchIfVersion(product, expectedVersion);
+            }
+            return conditional
+                .onItem().transform(updated -> Response.ok(UpsertProductResponse.builder()
+                        .summary(SummaryDto.builder().created(0).updated(1).duplicates(0).total(1).build())
+                        .item(ProductMapper.toResponse(updated))
+                        .build()).tag(ProductETags.of(updated)).build());
+        }
         return productService.patchProducts(java.util.List.of(product))
             .onItem().transform(summary -> {
                 UpsertProductResponse body = UpsertProductResponse.builder()
@@ -118,25 +366,242 @@ public class ProductsController {
         if (count <= 0) {
             throw new BadRequestException("The value of count field must be positive");
         }
-        return productService.getAvailableQuantity(id)
-            .onItem().transformToUni(availableQty -> productService.isAvailable(id, count)
-                .onItem().transform(available -> Response.ok(AvailabilityResponse.builder()
-                        .id(id)
-                        .requested(count)
-                        .available(available)
-                        .availableQuantity(availableQty)
-                        .build()).build()));
+        Uni<AvailabilityResponse> availability = blockingService.isActive()
+            ? blockingService.run(() -> blockingService.getAvailability(id, count))
+            : productService.getAvailability(id, count);
+        return availability.onItem().transform(a -> Response.ok(a).build());
+    }
+
+    /**
+     * Checks availability of many products with a single lookup.
+     * @param requests list of id and requested count pairs
+     * @return response with per-request availability and ids that do not exist
+     */
+    @POST
+    @Path(UriConstants.AVAILABILITY)
+    public Uni<Response> checkAvailabilityBatch(List<ProductCountRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BadRequestException("Body must be a non-empty array of {id, count}");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("At most " + MAX_BATCH_SIZE + " entries are allowed per request");
+        }
+        boolean anyInvalid = requests.stream().anyMatch(r -> r == null || r.getId() == null || r.getCount() == null || r.getCount() <= 0);
+        if (anyInvalid) {
+            throw new BadRequestException("Each entry requires an id and a positive count");
+        }
+        return productService.getAvailability(requests).onItem().transform(body -> Response.ok(body).build());
+    }
+
+    /**
+     * Atomically reserves stock of a product.
+     * @param id product id
+     * @param count units to reserve
+     * @return response with the remaining quantity; 409 when stock is insufficient
+     */
+    @POST
+    @Path(UriConstants.ID_RESERVE)
+    @Consumes(MediaType.WILDCARD)
+    public Uni<Response> reserve(@PathParam("id") long id, @QueryParam("count") int count) {
+        if (count <= 0) {
+            throw new BadRequestException("The value of count field must be positive");
+        }
+        return productService.reserve(id, count).onItem().transform(r -> Response.ok(r).build());
+    }
+
+    /**
+     * Reserves stock of several products; either every entry is reserved or none.
+     * @param requests list of id and count pairs
+     * @return response with per-product remaining quantities
+     */
+    @POST
+    @Path(UriConstants.RESERVE)
+    public Uni<Response> reserveAll(List<ProductCountRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BadRequestException("Body must be a non-empty array of {id, count}");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("At most " + MAX_BATCH_SIZE + " entries are allowed per request");
+        }
+        boolean anyInvalid = requests.stream().anyMatch(r -> r == null || r.getId() == null || r.getCount() == null || r.getCount() <= 0);
+        if (anyInvalid) {
+            throw new BadRequestException("Each entry requires an id and a positive count");
+        }
+        return productService.reserveAll(requests)
+            .onItem().transform(items -> Response.ok(BatchReservationResponse.builder().items(items).build()).build());
+    }
+
+    /**
+     * Fetches many products by id with a single lookup.
+     * @param ids product ids to fetch
+     * @return response with found products (in request order) and ids that do not exist
+     */
+    @POST
+    @Path(UriConstants.BATCH_GET)
+    public Uni<Response> batchGet(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BadRequestException("Body must be a non-empty array of ids");
+        }
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("At most " + MAX_BATCH_SIZE + " ids are allowed per request");
+        }
+        if (ids.contains(null)) {
+            throw new BadRequestException("Ids must not be null");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        return productService.getProductsByIds(requested)
+            .onItem().transform(found -> {
+                Map<Long, Product> byId = found.stream().collect(Collectors.toMap(Product::getId, p -> p));
+                BatchGetResponse.BatchGetResponseBuilder body = BatchGetResponse.builder();
+                for (Long id : requested) {
+                    Product p = byId.get(id);
+                    if (p == null) {
+                        body.missingId(id);
+                    } else {
+                        body.item(ProductMapper.toResponse(p));
+                    }
+                }
+                return Response.ok(body.build()).build();
+            });
     }
 
     /**
      * Lists products sorted by price.
      * @param order sort order (ASC or DESC)
+     * @param fields optional comma-separated fields to return; only those are read from Mongo
+     * @param acceptEncoding Accept-Encoding header, used to pick the gzip snapshot
+     * @param request request used to evaluate If-None-Match
      * @return response with sorted list
      */
     @GET
     @Path(UriConstants.SORTED_PRICE)
-    public Uni<Response> listSortedByPrice(@QueryParam("order") @DefaultValue("ASC") SortOrder order) {
-        return productService.getAllSortedByPrice(order)
-            .onItem().transform(list -> Response.ok(list.stream().map(ProductMapper::toResponse).collect(Collectors.toList())).build());
+    public Uni<Response> listSortedByPrice(@QueryParam("order") @DefaultValue("ASC") SortOrder order, @QueryParam("fields") String fields,
+                                           @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding, @Context Request request) {
+        Set<String> sparse = ProductFields.parse(fields);
+        CatalogSnapshotCache.Snapshot snapshot = sparse == null
+                ? snapshots.get(order == SortOrder.DESC ? CatalogSnapshotCache.View.PRICE_DESC : CatalogSnapshotCache.View.PRICE_ASC)
+                : null;
+        if (snapshot != null) {
+            return Uni.createFrom().item(fromSnapshot(snapshot, acceptEncoding, request));
+        }
+        if (useRawReads(sparse)) {
+            return productService.getAllSortedByPriceRaw(order).onItem().transform(documents -> conditional(request, RawProductJson.list(documents)));
+        }
+        return sortedByPrice(order, sparse)
+            .onItem().transform(list -> conditional(request, ProductETags.of(list), () -> toBodies(list, sparse)));
+    }
+
+    /**
+     * Lists products within price and quantity bounds, one keyset page at a time.
+     * @param minPrice optional lower price bound (inclusive)
+     * @param maxPrice optional upper price bound (inclusive)
+     * @param minQuantity optional lower quantity bound (inclusive)
+     * @param sortBy sort field (PRICE or ID)
+     * @param order sort order (ASC or DESC)
+     * @param limit page size (1..1000, default 100)
+     * @param cursor optional nextCursor of the previous page
+     * @return response with the page and the cursor of the next one (null on the last page)
+     */
+    @GET
+    @Path(UriConstants.FILTER)
+    public Uni<Response> filterProducts(@QueryParam("minPrice") Double minPrice, @QueryParam("maxPrice") Double maxPrice,
+                                        @QueryParam("minQuantity") Integer minQuantity,
+                                        @QueryParam("sortBy") @DefaultValue("PRICE") ProductSortField sortBy,
+                                        @QueryParam("order") @DefaultValue("ASC") SortOrder order,
+                                        @QueryParam("limit") Integer limit, @QueryParam("cursor") String cursor) {
+        int size = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("The value of limit field must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new BadRequestException("minPrice must not be greater than maxPrice");
+        }
+        ProductFilter.ProductFilterBuilder filter = ProductFilter.builder()
+                .minPrice(minPrice).maxPrice(maxPrice).minQuantity(minQuantity)
+                .sortBy(sortBy).order(order).limit(size);
+        if (cursor != null) {
+            FilterCursor.apply(cursor, sortBy, filter);
+        }
+        return productService.filterProducts(filter.build())
+            .onItem().transform(list -> Response.ok(ProductFilterResponse.builder()
+                    .items(toResponses(list))
+                    .nextCursor(list.size() == size ? FilterCursor.encode(sortBy, list.get(list.size() - 1)) : null)
+                    .build()).build());
+    }
+
+    /**
+     * Searches product names and descriptions; every term must match, exactly or as a prefix.
+     * @param q search text
+     * @param limit maximum number of results (1..100, default 20)
+     * @return response with the best matches first and the total number of matches
+     */
+    @GET
+    @Path(UriConstants.SEARCH)
+    public Uni<Response> search(@QueryParam("q") String q, @QueryParam("limit") Integer limit) {
+        if (q == null || q.isBlank()) {
+            throw new BadRequestException("The value of q field must not be blank");
+        }
+        int size = limit != null ? limit : DEFAULT_SEARCH_LIMIT;
+        if (size <= 0 || size > MAX_SEARCH_LIMIT) {
+            throw new BadRequestException("The value of limit field must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        return productService.search(q, size).onItem().transform(result -> Response.ok(result).build());
+    }
+
+    /**
+     * Returns inventory statistics computed by a server-side aggregation.
+     * @param lowStockThreshold products with a quantity below this count as low on stock (default {@code app.stats.low-stock-threshold})
+     * @param buckets comma-separated, strictly ascending lower bounds of the price histogram buckets (default {@code app.stats.price-buckets})
+     * @return response with totals, the low-stock count and the price histogram
+     */
+    @GET
+    @Path(UriConstants.STATS)
+    public Uni<Response> stats(@QueryParam("lowStockThreshold") Integer lowStockThreshold, @QueryParam("buckets") String buckets) {
+        int threshold = lowStockThreshold != null ? lowStockThreshold : statsService.getDefaultLowStockThreshold();
+        if (threshold < 0) {
+            throw new BadRequestException("lowStockThreshold must not be negative");
+        }
+        List<Double> boundaries = buckets != null ? parseBuckets(buckets) : statsService.getDefaultPriceBuckets();
+        return statsService.getStats(threshold, boundaries).onItem().transform(stats -> Response.ok(stats).build());
+    }
+
+    private static List<Double> parseBuckets(String buckets) {
+        List<Double> boundaries;
+        try {
+            boundaries = Arrays.stream(buckets.split(",")).map(String::trim).map(Double::valueOf).collect(Collectors.toList());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("buckets must be a comma-separated list of numbers");
+        }
+        if (boundaries.size() > MAX_PRICE_BUCKETS) {
+            throw new BadRequestException("At most " + MAX_PRICE_BUCKETS + " buckets are allowed");
+        }
+        for (int i = 0; i < boundaries.size(); i++) {
+            if (!Double.isFinite(boundaries.get(i)) || i > 0 && boundaries.get(i) <= boundaries.get(i - 1)) {
+                throw new BadRequestException("buckets must be finite and strictly ascending");
+            }
+        }
+        return boundaries;
+    }
+
+    /**
+     * Streams all products as newline-delimited JSON in id order.
+     * @return Multi emitting one product per line
+     */
+    @GET
+    @Path(UriConstants.STREAM)
+    @Produces(RestMediaType.APPLICATION_NDJSON)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<ProductResponse> streamProducts() {
+        return productService.streamAllProducts().onItem().transform(ProductMapper::toResponse);
+    }
+
+    /**
+     * Returns hit/miss/eviction counters of the product near cache.
+     * @return response with cache statistics
+     */
+    @GET
+    @Path(UriConstants.CACHE_STATS)
+    public Response cacheStats() {
+        return Response.ok(productService.getCacheStats()).build();
     }
 }
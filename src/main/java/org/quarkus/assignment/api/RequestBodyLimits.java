@@ -0,0 +1,71 @@
+package org.quarkus.assignment.api;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.vertx.http.runtime.VertxHttpRecorder;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.quarkus.assignment.util.UriConstants;
+
+/**
+ * Holds every request body except the streaming ingestion to {@code app.http.max-body-size}.
+ * <p>
+ * Quarkus applies one global limit, {@code quarkus.http.limits.max-body-size}, before routing. That limit is set
+ * for {@code POST /products/ingest}, which parses its body incrementally. Every other endpoint buffers or fully
+ * binds its body, so this route lowers the limit for those requests. A declared Content-Length above the limit is
+ * rejected with 413 up front. A chunked body is cut off once it grows past the limit while it is read.
+ */
+@ApplicationScoped
+public class RequestBodyLimits {
+
+    /** Right after Quarkus's own limit check (order -2), before any endpoint. */
+    private static final int ROUTE_ORDER = -1;
+
+    private static final String INGEST_PATH = UriConstants.PRODUCTS_BASE + UriConstants.INGEST;
+
+    @ConfigProperty(name = "app.http.max-body-size", defaultValue = "10M")
+    MemorySize maxBodySize;
+
+    void install(@Observes Router router) {
+        router.route().order(ROUTE_ORDER).handler(this::limit);
+    }
+
+    void limit(RoutingContext context) {
+        HttpServerRequest request = context.request();
+        if (request.method() == HttpMethod.POST && INGEST_PATH.equals(request.path())) {
+            context.next();
+            return;
+        }
+        long limit = maxBodySize.asLongValue();
+        if (declaredLength(request) > limit) {
+            // The body is never read, so the connection cannot be reused
+            context.response()
+                    .setStatusCode(Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode())
+                    .putHeader(HttpHeaders.CONNECTION, HttpHeaders.CLOSE)
+                    .end()
+                    .onComplete(ignored -> request.connection().close());
+            return;
+        }
+        // Read by Quarkus REST whenever a body outgrows its input buffer
+        context.put(VertxHttpRecorder.MAX_REQUEST_SIZE_KEY, limit);
+        context.next();
+    }
+
+    private static long declaredLength(HttpServerRequest request) {
+        String header = request.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (header == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
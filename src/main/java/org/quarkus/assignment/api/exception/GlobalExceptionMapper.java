@@ -10,6 +10,8 @@ import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
 import org.jboss.logging.Logger;
 import org.quarkus.assignment.dto.ErrorResponse;
 
@@ -59,6 +61,7 @@ public class GlobalExceptionMapper implements ExceptionMapper<Throwable> {
 			return wae.getResponse() != null ? wae.getResponse().getStatus() : Response.Status.INTERNAL_SERVER_ERROR.getStatusCode();
 		}
 		if (ex instanceof NotFoundException) return Response.Status.NOT_FOUND.getStatusCode();
+		if (ex instanceof BulkheadException || ex instanceof CircuitBreakerOpenException) return Response.Status.SERVICE_UNAVAILABLE.getStatusCode();
 		if (ex instanceof BadRequestException) return Response.Status.BAD_REQUEST.getStatusCode();
 		return Response.Status.INTERNAL_SERVER_ERROR.getStatusCode();
 	}
@@ -0,0 +1,195 @@
+package org.quarkus.assignment.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.Unpooled;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.buffer.impl.BufferImpl;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.EntityTag;
+import lombok.Value;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.quarkus.assignment.changes.ProductChangeEvent;
+import org.quarkus.assignment.mapper.ProductMapper;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.SortOrder;
+import org.quarkus.assignment.storage.ProductStore;
+import org.quarkus.assignment.util.ProductETags;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-serialized snapshots of the full product list and both price orders.
+ * <p>
+ * Each view holds the encoded JSON and its gzip variant in direct buffers, so a hit is answered without
+ * querying, mapping or serializing anything. Any write through {@code ProductService}, or reported by the change
+ * listener, calls {@link #invalidate()}, which retires the current snapshots at once (readers fall back to the live
+ * query) and schedules one background rebuild after {@code app.cache.catalog.rebuild-delay}, so a burst of writes
+ * costs a single rebuild.
+ */
+@ApplicationScoped
+public class CatalogSnapshotCache {
+
+    private static final Logger LOG = Logger.getLogger(CatalogSnapshotCache.class);
+
+    /** List representations that are snapshotted. */
+    public enum View { ALL, PRICE_ASC, PRICE_DESC }
+
+    /** Encoded representation of one view; buffers are read-only and shared between requests. */
+    @Value
+    public static class Snapshot {
+        EntityTag tag;
+        ByteBuffer json;
+        ByteBuffer gzip;
+
+        /**
+         * Wraps one encoding in a Vert.x buffer without copying the bytes.
+         * @param gzipped whether the gzip variant is wanted
+         * @return buffer over the shared snapshot bytes
+         */
+        public Buffer body(boolean gzipped) {
+            return BufferImpl.buffer(Unpooled.wrappedBuffer((gzipped ? gzip : json).duplicate()));
+        }
+
+        /**
+         * Entity tag of one encoding; the gzip variant gets its own tag as its bytes differ.
+         * @param gzipped whether the gzip variant is meant
+         * @return entity tag
+         */
+        public EntityTag tag(boolean gzipped) {
+            return gzipped ? new EntityTag(tag.getValue() + "-gzip") : tag;
+        }
+    }
+
+    @Value
+    private static class Generation {
+        long number;
+        Map<View, Snapshot> snapshots;
+    }
+
+    @ConfigProperty(name = "app.cache.catalog.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "app.cache.catalog.rebuild-delay", defaultValue = "200MS")
+    Duration rebuildDelay;
+
+    @Inject
+    ProductStore store;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Vertx vertx;
+
+    /** Bumped by every invalidation; snapshots built for an older generation are never served. */
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<Generation> current = new AtomicReference<>();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    /**
+     * Returns the current snapshot of a view, scheduling a rebuild when there is none.
+     * @param view list representation
+     * @return snapshot, or null when disabled or not (re)built yet
+     */
+    public Snapshot get(View view) {
+        if (!enabled) {
+            return null;
+        }
+        Generation built = current.get();
+        if (built == null || built.getNumber() != generation.get()) {
+            scheduleRebuild();
+            return null;
+        }
+        return built.getSnapshots().get(view);
+    }
+
+    /**
+     * Retires the current snapshots and schedules a background rebuild.
+     */
+    public void invalidate() {
+        if (!enabled) {
+            return;
+        }
+        generation.incrementAndGet();
+        scheduleRebuild();
+    }
+
+    void onProductChange(@Observes ProductChangeEvent event) {
+        invalidate();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            vertx.setTimer(Math.max(1, rebuildDelay.toMillis()), timer -> rebuild().subscribe().with(
+                    number -> LOG.debugf("Catalog snapshot %d rebuilt", number),
+                    failure -> LOG.warn("Catalog snapshot rebuild failed", failure)));
+        }
+    }
+
+    /**
+     * Queries and encodes every view, then publishes them unless a write happened meanwhile.
+     * @return Uni emitting the number of the generation that was built
+     */
+    Uni<Long> rebuild() {
+        long number = generation.get();
+        return Uni.combine().all().unis(
+                    store.listAll(),
+                    store.listByPrice(SortOrder.ASC),
+                    store.listByPrice(SortOrder.DESC))
+                .asTuple()
+                .emitOn(Infrastructure.getDefaultWorkerPool())
+                .onItem().transform(lists -> {
+                    Map<View, Snapshot> snapshots = new EnumMap<>(View.class);
+                    snapshots.put(View.ALL, encode(lists.getItem1()));
+                    snapshots.put(View.PRICE_ASC, encode(lists.getItem2()));
+                    snapshots.put(View.PRICE_DESC, encode(lists.getItem3()));
+                    Generation built = new Generation(number, snapshots);
+                    current.accumulateAndGet(built, (prev, next) -> prev != null && prev.getNumber() > next.getNumber() ? prev : next);
+                    return number;
+                })
+                .onTermination().invoke(() -> {
+                    rebuildScheduled.set(false);
+                    // A write landed while this rebuild was reading; its result is already stale
+                    if (generation.get() != number) {
+                        scheduleRebuild();
+                    }
+                });
+    }
+
+    private Snapshot encode(List<Product> products) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(products.stream().map(ProductMapper::toResponse).collect(Collectors.toList()));
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+                out.write(json);
+            }
+            return new Snapshot(ProductETags.of(products), direct(json), direct(gzipped.toByteArray()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer direct(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+}
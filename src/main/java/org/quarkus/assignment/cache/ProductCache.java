@@ -0,0 +1,152 @@
+package org.quarkus.assignment.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.quarkus.assignment.changes.ProductChangeEvent;
+import org.quarkus.assignment.dto.CacheStatsResponse;
+import org.quarkus.assignment.model.Product;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Size-bounded, read-through near cache for products keyed by id.
+ * <p>
+ * Backed by Caffeine (W-TinyLFU eviction). Loads are shared between concurrent callers, and a caller that cancels
+ * only detaches itself. An invalidation issued while a load is in flight discards that load's result, so a write
+ * can't be overwritten by a read that started before it. Cached instances are shared and must not be mutated.
+ */
+@ApplicationScoped
+public class ProductCache {
+
+    private static final Logger LOG = Logger.getLogger(ProductCache.class);
+
+    @ConfigProperty(name = "app.cache.products.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "app.cache.products.max-size", defaultValue = "10000")
+    long maxSize;
+
+    @ConfigProperty(name = "app.cache.products.ttl", defaultValue = "5M")
+    Duration ttl;
+
+    @Inject
+    MeterRegistry registry;
+
+    private AsyncCache<Long, Product> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, cache, "products");
+        LOG.debugf("Product cache enabled=%s maxSize=%d ttl=%s", enabled, maxSize, ttl);
+    }
+
+    /**
+     * Returns the cached product or loads it with the given loader. Absent products are not cached.
+     * @param id product id
+     * @param loader loader invoked on a miss
+     * @return Uni emitting the product or null
+     */
+    public Uni<Product> get(long id, LongFunction<Uni<Product>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        // Each subscriber gets its own dependent stage: cancelling one must not cancel the shared load
+        return Uni.createFrom().completionStage(() ->
+                cache.get(id, (key, executor) -> load(loader.apply(key)))
+                        .thenApply(Function.identity()));
+    }
+
+    /**
+     * Subscribes to the load once and exposes it as a plain future. Unlike subscribeAsCompletionStage(), which
+     * Quarkus wraps for context propagation, nothing downstream of this future can reach the load's subscription.
+     */
+    private static CompletableFuture<Product> load(Uni<Product> load) {
+        CompletableFuture<Product> result = new CompletableFuture<>();
+        load.subscribe().with(result::complete, result::completeExceptionally);
+        return result;
+    }
+
+    /**
+     * Returns the product when it is already cached, without loading it.
+     * @param id product id
+     * @return cached product, or null on a miss or while a load is still in flight
+     */
+    public Product peek(long id) {
+        if (!enabled) {
+            return null;
+        }
+        CompletableFuture<Product> cached = cache.getIfPresent(id);
+        return cached != null && cached.isDone() && !cached.isCompletedExceptionally() ? cached.getNow(null) : null;
+    }
+
+    /**
+     * Removes a single product from the cache.
+     * @param id product id
+     */
+    public void invalidate(long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    /**
+     * Removes the given products from the cache.
+     * @param ids product ids
+     */
+    public void invalidateAll(Collection<Long> ids) {
+        cache.synchronous().invalidateAll(ids);
+    }
+
+    /**
+     * Removes every product from the cache.
+     */
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Drops products changed on any node, as reported by the change listener.
+     * @param event product change
+     */
+    void onProductChange(@Observes ProductChangeEvent event) {
+        if (event.getId() == null) {
+            invalidateAll();
+        } else {
+            invalidate(event.getId());
+        }
+    }
+
+    /**
+     * Snapshot of the hit/miss/eviction counters.
+     * @return cache statistics
+     */
+    public CacheStatsResponse stats() {
+        CacheStats stats = cache.synchronous().stats();
+        return CacheStatsResponse.builder()
+                .enabled(enabled)
+                .size(cache.synchronous().estimatedSize())
+                .maxSize(maxSize)
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .evictions(stats.evictionCount())
+                .hitRate(stats.hitRate())
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package org.quarkus.assignment.changes;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process stand-in for the Mongo change stream, for tests and single-node setups without a replica set.
+ * <p>
+ * Changes are {@link #publish published} by hand (e.g. to simulate a write on another node) and kept in an
+ * in-memory log, so subscribers can resume after a token just like with a change stream. The log is never
+ * trimmed; this source is not meant for production traffic.
+ */
+@ApplicationScoped
+public class LocalChangeSource implements ProductChangeSource {
+
+    private static final String SEQUENCE = "seq";
+
+    private final List<ProductChangeEvent> log = new ArrayList<>();
+    private final List<MultiEmitter<? super ProductChangeEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Appends a change to the log and delivers it to current subscribers.
+     * @param type kind of change
+     * @param id product id, null for {@link ProductChangeEvent.Type#ALL}
+     */
+    public synchronized void publish(ProductChangeEvent.Type type, Long id) {
+        ProductChangeEvent event = new ProductChangeEvent(type, id, new BsonDocument(SEQUENCE, new BsonInt64(log.size() + 1)));
+        log.add(event);
+        subscribers.forEach(subscriber -> subscriber.emit(event));
+    }
+
+    @Override
+    public Multi<ProductChangeEvent> changes(BsonDocument resumeAfter) {
+        return Multi.createFrom().emitter(emitter -> {
+            synchronized (this) {
+                int from = resumeAfter != null && resumeAfter.containsKey(SEQUENCE)
+                        ? (int) Math.min(resumeAfter.getNumber(SEQUENCE).longValue(), log.size())
+                        : log.size();
+                log.subList(from, log.size()).forEach(emitter::emit);
+                subscribers.add(emitter);
+            }
+            emitter.onTermination(() -> subscribers.remove(emitter));
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package org.quarkus.assignment.changes;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import io.quarkus.mongodb.ChangeStreamOptions;
+import io.smallrye.mutiny.Multi;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.quarkus.assignment.persistence.ProductRepository;
+
+import java.util.List;
+
+/**
+ * Change stream on the products collection. Requires a replica set or sharded cluster.
+ * <p>
+ * Only the operation type and document key are projected, so events stay small whatever the product size.
+ */
+@ApplicationScoped
+public class MongoChangeStreamSource implements ProductChangeSource {
+
+    /** ChangeStreamHistoryLost: the resume token is older than the oplog. */
+    private static final int HISTORY_LOST = 286;
+    /** ChangeStreamFatalError: the stream can't be resumed from the token. */
+    private static final int FATAL_ERROR = 280;
+
+    @Inject
+    ProductRepository repository;
+
+    @Override
+    public Multi<ProductChangeEvent> changes(BsonDocument resumeAfter) {
+        ChangeStreamOptions options = new ChangeStreamOptions();
+        if (resumeAfter != null) {
+            // startAfter (unlike resumeAfter) also accepts the token of an invalidate event
+            options.startAfter(resumeAfter);
+        }
+        return repository.mongoCollection()
+                .watch(List.of(Aggregates.project(Projections.include("operationType", "documentKey"))), Document.class, options)
+                .onItem().transform(MongoChangeStreamSource::toEvent);
+    }
+
+    @Override
+    public boolean isResumeTokenLost(Throwable failure) {
+        return failure instanceof MongoException e && (e.getCode() == HISTORY_LOST || e.getCode() == FATAL_ERROR);
+    }
+
+    private static ProductChangeEvent toEvent(ChangeStreamDocument<Document> change) {
+        BsonDocument token = change.getResumeToken();
+        switch (change.getOperationType()) {
+            case INSERT:
+            case UPDATE:
+            case REPLACE:
+                return ProductChangeEvent.upserted(idOf(change), token);
+            case DELETE:
+                return ProductChangeEvent.deleted(idOf(change), token);
+            default:
+                return ProductChangeEvent.all(token);
+        }
+    }
+
+    private static long idOf(ChangeStreamDocument<Document> change) {
+        return change.getDocumentKey().get("_id").asNumber().longValue();
+    }
+}
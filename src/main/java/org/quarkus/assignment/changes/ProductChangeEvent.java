@@ -0,0 +1,38 @@
+package org.quarkus.assignment.changes;
+
+import lombok.Value;
+import org.bson.BsonDocument;
+
+/**
+ * A change to the products collection, published as a CDI event to every local cache.
+ */
+@Value
+public class ProductChangeEvent {
+
+    public enum Type {
+        /** The product was inserted, updated or replaced. */
+        UPSERTED,
+        /** The product was deleted. */
+        DELETED,
+        /** The collection changed wholesale (drop, rename, lost history); every cached product is suspect. */
+        ALL
+    }
+
+    Type type;
+    /** Product id, null for {@link Type#ALL}. */
+    Long id;
+    /** Position in the change source to resume after; null when the source can't resume. */
+    BsonDocument resumeToken;
+
+    public static ProductChangeEvent upserted(long id, BsonDocument resumeToken) {
+        return new ProductChangeEvent(Type.UPSERTED, id, resumeToken);
+    }
+
+    public static ProductChangeEvent deleted(long id, BsonDocument resumeToken) {
+        return new ProductChangeEvent(Type.DELETED, id, resumeToken);
+    }
+
+    public static ProductChangeEvent all(BsonDocument resumeToken) {
+        return new ProductChangeEvent(Type.ALL, null, resumeToken);
+    }
+}
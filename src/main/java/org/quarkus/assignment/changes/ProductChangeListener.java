@@ -0,0 +1,181 @@
+package org.quarkus.assignment.changes;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.Cancellable;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.bson.BsonDocument;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.quarkus.assignment.storage.ProductStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps local caches coherent with writes made by other nodes.
+ * <p>
+ * Subscribes to the configured {@link ProductChangeSource} and fires every change as a CDI
+ * {@link ProductChangeEvent}, which the local caches observe. The resume token of the last applied change is
+ * saved to {@code app.changes.resume-token-path} every {@code app.changes.token-save-interval}, and the
+ * subscription resumes after it on restart or after a failure. Changes are only ever used for invalidation,
+ * so re-applying a few after a crash is harmless. When the token can no longer be resumed, the listener starts
+ * again from now and clears every cache once the new stream is subscribed. Clearing only then means nothing
+ * cached while the stream was down, including during the retry backoff, can outlive the missed changes.
+ * <p>
+ * The {@code mongo} source watches the products collection, so it fails startup unless Mongo is the storage backend.
+ */
+@ApplicationScoped
+public class ProductChangeListener {
+
+    private static final Logger LOG = Logger.getLogger(ProductChangeListener.class);
+
+    @ConfigProperty(name = "app.changes.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "app.changes.source", defaultValue = "mongo")
+    String sourceName;
+
+    @ConfigProperty(name = "app.changes.resume-token-path", defaultValue = "product-changes.token")
+    Path tokenPath;
+
+    @ConfigProperty(name = "app.changes.token-save-interval", defaultValue = "1S")
+    Duration tokenSaveInterval;
+
+    @ConfigProperty(name = "app.changes.retry-backoff", defaultValue = "1S")
+    Duration retryBackoff;
+
+    @Inject
+    MongoChangeStreamSource mongoSource;
+
+    @Inject
+    LocalChangeSource localSource;
+
+    @Inject
+    Event<ProductChangeEvent> changes;
+
+    @Inject
+    ProductStore store;
+
+    private volatile BsonDocument lastToken;
+    private volatile boolean tokenDirty;
+    /** Set when changes were missed; every cache is cleared when the next stream is subscribed. */
+    private volatile boolean resyncPending;
+    private Cancellable subscription;
+    private ScheduledExecutorService tokenSaver;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!"local".equals(sourceName) && !store.supportsQueries()) {
+            throw new IllegalStateException("app.changes.source=mongo requires app.storage.backend=mongo");
+        }
+        start();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        stop();
+    }
+
+    /**
+     * Loads the stored resume token and subscribes to the change source.
+     */
+    synchronized void start() {
+        if (subscription != null) {
+            return;
+        }
+        ProductChangeSource source = "local".equals(sourceName) ? localSource : mongoSource;
+        lastToken = readToken();
+        subscription = Multi.createFrom().deferred(() -> source.changes(lastToken).onSubscription().invoke(this::resyncIfPending))
+                .onFailure().invoke(failure -> {
+                    if (source.isResumeTokenLost(failure)) {
+                        LOG.warn("Product change stream can't resume from its token; local caches are cleared once it reopens");
+                        lastToken = null;
+                        tokenDirty = true;
+                        resyncPending = true;
+                    } else {
+                        LOG.warnf("Product change stream interrupted, resuming: %s", failure.getMessage());
+                    }
+                })
+                .onFailure().retry().withBackOff(retryBackoff, retryBackoff.multipliedBy(30)).indefinitely()
+                .subscribe().with(this::apply, failure -> LOG.error("Product change stream stopped", failure));
+        tokenSaver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "product-changes-token");
+            t.setDaemon(true);
+            return t;
+        });
+        tokenSaver.scheduleWithFixedDelay(this::saveToken, tokenSaveInterval.toMillis(), tokenSaveInterval.toMillis(), TimeUnit.MILLISECONDS);
+        LOG.infof("Listening to %s product changes (resume token %s)", sourceName, lastToken != null ? "found" : "absent");
+    }
+
+    /**
+     * Cancels the subscription and saves the resume token.
+     */
+    synchronized void stop() {
+        if (subscription == null) {
+            return;
+        }
+        subscription.cancel();
+        subscription = null;
+        tokenSaver.shutdown();
+        saveToken();
+    }
+
+    private void resyncIfPending() {
+        if (resyncPending) {
+            resyncPending = false;
+            changes.fire(ProductChangeEvent.all(null));
+        }
+    }
+
+    private void apply(ProductChangeEvent event) {
+        changes.fire(event);
+        if (event.getResumeToken() != null) {
+            lastToken = event.getResumeToken();
+            tokenDirty = true;
+        }
+    }
+
+    private BsonDocument readToken() {
+        try {
+            return Files.exists(tokenPath) ? BsonDocument.parse(Files.readString(tokenPath)) : null;
+        } catch (IOException | RuntimeException e) {
+            LOG.warnf("Ignoring unreadable resume token %s: %s", tokenPath, e.getMessage());
+            return null;
+        }
+    }
+
+    private synchronized void saveToken() {
+        if (!tokenDirty) {
+            return;
+        }
+        tokenDirty = false;
+        BsonDocument token = lastToken;
+        try {
+            if (token == null) {
+                Files.deleteIfExists(tokenPath);
+                return;
+            }
+            // Write then rename, so a crash never leaves a truncated token behind
+            Path tmp = tokenPath.resolveSibling(tokenPath.getFileName() + ".tmp");
+            Files.writeString(tmp, token.toJson(JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build()));
+            Files.move(tmp, tokenPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            tokenDirty = true;
+            LOG.warnf("Failed to save resume token %s: %s", tokenPath, e.getMessage());
+        }
+    }
+}
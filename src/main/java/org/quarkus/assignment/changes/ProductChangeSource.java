@@ -0,0 +1,26 @@
+package org.quarkus.assignment.changes;
+
+import io.smallrye.mutiny.Multi;
+import org.bson.BsonDocument;
+
+/**
+ * Feed of changes to the products collection, made by this node or any other.
+ */
+public interface ProductChangeSource {
+
+    /**
+     * Subscribes to changes.
+     * @param resumeAfter token of the last change already applied, or null to start from now
+     * @return Multi emitting changes in order; it fails when the source is interrupted
+     */
+    Multi<ProductChangeEvent> changes(BsonDocument resumeAfter);
+
+    /**
+     * Tells whether a failure means the resume token can no longer be used, so changes were missed.
+     * @param failure failure of {@link #changes(BsonDocument)}
+     * @return true when the caller must drop its token and resynchronise
+     */
+    default boolean isResumeTokenLost(Throwable failure) {
+        return false;
+    }
+}
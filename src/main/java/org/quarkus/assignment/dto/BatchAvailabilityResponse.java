@@ -0,0 +1,16 @@
+package org.quarkus.assignment.dto;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class BatchAvailabilityResponse {
+	@Singular("item")
+	List<AvailabilityResponse> items;
+	@Singular("missingId")
+	List<Long> missingIds;
+}
@@ -0,0 +1,14 @@
+package org.quarkus.assignment.dto;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class BatchReservationResponse {
+	@Singular("item")
+	List<ReservationResponse> items;
+}
@@ -0,0 +1,16 @@
+package org.quarkus.assignment.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class CacheStatsResponse {
+	boolean enabled;
+	long size;
+	long maxSize;
+	long hits;
+	long misses;
+	long evictions;
+	double hitRate;
+}
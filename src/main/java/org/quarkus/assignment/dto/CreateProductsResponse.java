@@ -1,5 +1,6 @@
 package org.quarkus.assignment.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Singular;
 import lombok.Value;
@@ -10,6 +11,7 @@ import java.util.List;
 @Builder
 public class CreateProductsResponse {
 	SummaryDto summary;
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
 	@Singular("item")
 	List<ProductResponse> items;
 }
@@ -0,0 +1,19 @@
+package org.quarkus.assignment.dto;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class CsvImportReport {
+	SummaryDto summary;
+	long rows;
+	long invalidRows;
+	long durationMillis;
+	double rowsPerSecond;
+	@Singular("error")
+	List<CsvRowError> errors;
+}
@@ -0,0 +1,11 @@
+package org.quarkus.assignment.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class CsvRowError {
+	long line;
+	String message;
+}
@@ -0,0 +1,22 @@
+package org.quarkus.assignment.dto;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class InventoryStatsResponse {
+	long productCount;
+	long totalQuantity;
+	double totalStockValue;
+	Double minPrice;
+	Double maxPrice;
+	Double avgPrice;
+	int lowStockThreshold;
+	long lowStockCount;
+	@Singular("priceBucket")
+	List<PriceBucketResponse> priceHistogram;
+}
@@ -0,0 +1,17 @@
+package org.quarkus.assignment.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * One price histogram bucket: {@code lowerBound <= price < upperBound}. A null upper bound is open ended,
+ * a null lower bound collects prices below the first boundary.
+ */
+@Value
+@Builder
+public class PriceBucketResponse {
+	Double lowerBound;
+	Double upperBound;
+	long count;
+	long totalQuantity;
+}
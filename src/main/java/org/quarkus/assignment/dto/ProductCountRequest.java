@@ -0,0 +1,13 @@
+package org.quarkus.assignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCountRequest {
+	private Long id;
+	private Integer count;
+}
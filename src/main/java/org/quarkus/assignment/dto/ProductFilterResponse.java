@@ -0,0 +1,15 @@
+package org.quarkus.assignment.dto;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class ProductFilterResponse {
+	@Singular("item")
+	List<ProductResponse> items;
+	String nextCursor;
+}
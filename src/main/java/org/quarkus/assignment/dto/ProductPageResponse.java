@@ -0,0 +1,16 @@
+package org.quarkus.assignment.dto;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class ProductPageResponse<T> {
+	/** Full {@link ProductResponse}s, or sparse field maps when specific fields were requested. */
+	@Singular("item")
+	List<T> items;
+	Long nextCursor;
+}
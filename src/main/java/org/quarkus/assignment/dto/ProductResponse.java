@@ -11,4 +11,5 @@ public class ProductResponse {
 	String description;
 	Double price;
 	Integer quantity;
+	Long version;
 }
@@ -0,0 +1,12 @@
+package org.quarkus.assignment.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class ReservationResponse {
+	long id;
+	int reserved;
+	int remainingQuantity;
+}
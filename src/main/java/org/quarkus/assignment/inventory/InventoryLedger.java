@@ -0,0 +1,510 @@
+package org.quarkus.assignment.inventory;
+
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.Response;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.quarkus.assignment.cache.CatalogSnapshotCache;
+import org.quarkus.assignment.changes.ProductChangeEvent;
+import org.quarkus.assignment.persistence.ProductRepository;
+import org.quarkus.assignment.storage.ProductStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Optional in-memory inventory ledger for hot products.
+ * <p>
+ * For the ids listed in {@code app.inventory.ledger.hot-ids}, reservations are checked and applied against a
+ * local view of the quantity and recorded in striped counters. Every {@code app.inventory.ledger.flush-interval}
+ * the net deltas are written to Mongo with one bulkWrite of $inc operations. Flushes and view loads run one at a
+ * time on the flush thread, so a view is always the stored quantity plus exactly the deltas not yet written.
+ * <p>
+ * Every flush carries an id that each updated product records. A flush that times out or fails partway is resent
+ * unchanged, with the same id, before any newer deltas; products that already applied it are skipped, so no delta is
+ * applied twice. While it is unacknowledged, a view load tells from the stored flush id whether to count it.
+ * <p>
+ * Each local change is appended to a journal, on its own writer thread, before the caller is answered, and the
+ * journal is replayed at startup, so unflushed deltas survive a process crash. A flush is journaled before it is
+ * sent and again once acknowledged. If the process dies in between, recovery assumes the worst case for each
+ * product: a net decrement is replayed and a net release is dropped. Stock can then be under-reported after
+ * recovery, but is never oversold. The journal is rewritten as a snapshot of the unflushed deltas after every
+ * acknowledged flush, so it stays small during a sustained sale.
+ * <p>
+ * The local view assumes this instance is the only writer of the hot products' quantity; other writes through
+ * {@code ProductService} call {@link #invalidate(Set)} so the view is reloaded.
+ * <p>
+ * Flushes write to Mongo directly, so enabling the ledger on another storage backend fails startup.
+ */
+@ApplicationScoped
+public class InventoryLedger {
+
+    private static final Logger LOG = Logger.getLogger(InventoryLedger.class);
+
+    private static final byte RECORD_DELTA = 1;
+    private static final byte RECORD_FLUSHED = 2;
+    private static final byte RECORD_FLUSHING = 3;
+    /** No longer written (failed flushes are resent as they are), but still understood in older journals. */
+    private static final byte RECORD_FLUSH_ABORTED = 4;
+    private static final int RECORD_SIZE = 1 + Long.BYTES + Long.BYTES;
+
+    @Inject
+    ProductRepository repository;
+
+    @Inject
+    ProductStore store;
+
+    @Inject
+    CatalogSnapshotCache snapshots;
+
+    @ConfigProperty(name = "app.inventory.ledger.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "app.inventory.ledger.hot-ids")
+    Optional<List<Long>> hotIds;
+
+    @ConfigProperty(name = "app.inventory.ledger.flush-interval", defaultValue = "200MS")
+    Duration flushInterval;
+
+    @ConfigProperty(name = "app.inventory.ledger.journal-path", defaultValue = "inventory-ledger.journal")
+    Path journalPath;
+
+    @ConfigProperty(name = "app.inventory.ledger.journal-fsync", defaultValue = "false")
+    boolean journalFsync;
+
+    /** Unflushed quantity change per hot id (negative for reservations). */
+    private final Map<Long, StripedCounter> pending = new ConcurrentHashMap<>();
+    /** Local quantity view per hot id, loaded on first use. */
+    private final Map<Long, CompletableFuture<AtomicLong>> views = new ConcurrentHashMap<>();
+    /** Records waiting for the journal writer, which appends everything queued in one write. */
+    private final Queue<JournalRecord> journalQueue = new ConcurrentLinkedQueue<>();
+    /** What replaying the journal file would recover per id; owned by the journal writer thread. */
+    private final Map<Long, JournalState> journaled = new HashMap<>();
+
+    private FileChannel journal;
+    /** Runs flushes and view loads, one at a time. */
+    private ScheduledExecutorService flusher;
+    /** Flush sent without an acknowledgement, to be resent as is; owned by the flush thread. */
+    private PendingFlush unacknowledged;
+    private ExecutorService journalWriter;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        if (!store.supportsQueries()) {
+            throw new IllegalStateException("app.inventory.ledger.enabled requires app.storage.backend=mongo");
+        }
+        hotIds.orElse(List.of()).forEach(id -> pending.put(id, newCounter()));
+        try {
+            replayJournal();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read inventory journal " + journalPath, e);
+        }
+        // Start from a snapshot so records of an unfinished flush are not confused with later ones
+        compactJournal();
+        if (journal == null) {
+            throw new IllegalStateException("Cannot open inventory journal " + journalPath);
+        }
+        journalWriter = Executors.newSingleThreadExecutor(r -> daemon(r, "inventory-ledger-journal"));
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "inventory-ledger-flush"));
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        LOG.infof("Inventory ledger enabled for ids %s (flush every %s)", pending.keySet(), flushInterval);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        // Observing startup creates the ledger eagerly, so a misconfiguration fails startup, not the first reservation
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(writeTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        journalWriter.shutdown();
+        try {
+            journalWriter.awaitTermination(writeTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOG.warn("Failed to close inventory journal", e);
+        }
+    }
+
+    /**
+     * Tells whether reservations and reads of the product go through the ledger.
+     * @param id product id
+     * @return true for configured hot ids while the ledger is enabled
+     */
+    public boolean isHot(long id) {
+        return enabled && pending.containsKey(id);
+    }
+
+    /**
+     * Available quantity as seen by the ledger (stored quantity plus unflushed deltas).
+     * @param id hot product id
+     * @return Uni emitting the quantity; fails with NotFoundException when the product doesn't exist
+     */
+    public Uni<Long> available(long id) {
+        return Uni.createFrom().completionStage(() -> sharedView(id)).onItem().transform(AtomicLong::get);
+    }
+
+    /**
+     * Takes {@code count} units locally when enough are available.
+     * @param id hot product id
+     * @param count units to take
+     * @return Uni emitting the remaining quantity once journaled; fails with 409 when stock is insufficient
+     */
+    public Uni<Long> reserve(long id, int count) {
+        return Uni.createFrom().completionStage(() -> sharedView(id)).onItem().transformToUni(available -> {
+            long current;
+            do {
+                current = available.get();
+                if (current < count) {
+                    throw new ClientErrorException("Insufficient quantity for product id " + id, Response.Status.CONFLICT);
+                }
+            } while (!available.compareAndSet(current, current - count));
+            pending.get(id).add(-count);
+            return Uni.createFrom().completionStage(appendJournal(RECORD_DELTA, id, -count)).replaceWith(current - count);
+        });
+    }
+
+    /**
+     * Gives back units taken by {@link #reserve(long, int)}.
+     * @param id hot product id
+     * @param count units to return
+     * @return Uni completing once the local view is updated and the change journaled
+     */
+    public Uni<Void> release(long id, int count) {
+        return Uni.createFrom().completionStage(() -> sharedView(id)).onItem().transformToUni(available -> {
+            available.addAndGet(count);
+            pending.get(id).add(count);
+            return Uni.createFrom().completionStage(appendJournal(RECORD_DELTA, id, count));
+        });
+    }
+
+    /**
+     * Drops the local views of the given products so they are reloaded from Mongo on next use.
+     * Unflushed deltas are kept and still applied on top of the reloaded quantity.
+     * @param ids product ids written outside the ledger
+     */
+    public void invalidate(Set<Long> ids) {
+        if (enabled) {
+            ids.forEach(views::remove);
+        }
+    }
+
+    /**
+     * Reloads the local views of products changed on another node, as reported by the change listener.
+     * @param event product change
+     */
+    void onProductChange(@Observes ProductChangeEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.getId() == null) {
+            views.clear();
+        } else {
+            views.remove(event.getId());
+        }
+    }
+
+    /**
+     * Writes all unflushed deltas to Mongo in one bulkWrite.
+     * @return Uni completing when the deltas are acknowledged (or immediately when there is nothing to flush)
+     */
+    public Uni<Void> flush() {
+        if (flusher == null) {
+            return Uni.createFrom().voidItem();
+        }
+        return Uni.createFrom().emitter(emitter -> flusher.execute(() -> {
+            try {
+                flushNow();
+                emitter.complete(null);
+            } catch (RuntimeException e) {
+                emitter.fail(e);
+            }
+        }));
+    }
+
+    private void flushQuietly() {
+        try {
+            flushNow();
+        } catch (RuntimeException e) {
+            LOG.warnf("Inventory ledger flush failed, it is resent on the next flush: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Resends the unacknowledged flush, if any, then drains the pending deltas and writes them to Mongo, blocking
+     * until acknowledged. Runs on the flush thread, so no view is loaded while a flush is in flight.
+     */
+    private void flushNow() {
+        if (unacknowledged != null) {
+            send(unacknowledged);
+        }
+        Map<Long, Long> batch = new HashMap<>();
+        pending.forEach((id, counter) -> {
+            long delta = counter.drain();
+            if (delta != 0) {
+                batch.put(id, delta);
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            appendJournal(RECORD_FLUSHING, batch).join();
+        } catch (RuntimeException e) {
+            // nothing was sent: keep the deltas for the next flush
+            batch.forEach((id, delta) -> pending.get(id).add(delta));
+            throw e;
+        }
+        unacknowledged = new PendingFlush(new ObjectId().toHexString(), batch);
+        send(unacknowledged);
+    }
+
+    /** Writes a flush and forgets it once acknowledged; on failure it stays unacknowledged and the caller fails. */
+    private void send(PendingFlush flush) {
+        repository.incrementQuantities(flush.deltas(), flush.id()).await().atMost(writeTimeout());
+        unacknowledged = null;
+        appendJournal(RECORD_FLUSHED, flush.deltas()).join();
+        CompletableFuture.runAsync(this::compactJournal, journalWriter).join();
+        snapshots.invalidate();
+    }
+
+    /** Gives each caller its own stage, so one that cancels does not cancel the load shared with the others. */
+    private CompletableFuture<AtomicLong> sharedView(long id) {
+        return view(id).thenApply(Function.identity());
+    }
+
+    private CompletableFuture<AtomicLong> view(long id) {
+        CompletableFuture<AtomicLong> view = views.computeIfAbsent(id, key -> {
+            CompletableFuture<AtomicLong> load = new CompletableFuture<>();
+            flusher.execute(() -> {
+                try {
+                    load.complete(loadView(key));
+                } catch (RuntimeException e) {
+                    load.completeExceptionally(e);
+                }
+            });
+            return load;
+        });
+        view.whenComplete((loaded, failure) -> {
+            if (failure != null) {
+                views.remove(id, view);
+            }
+        });
+        return view;
+    }
+
+    /** Reads the stored quantity on the flush thread, where it can't race with a flush's acknowledgement. */
+    private AtomicLong loadView(long id) {
+        Document stored = repository.findInventory(id).await().atMost(writeTimeout());
+        if (stored == null) {
+            throw new NotFoundException("Product id " + id + " doesn't exist");
+        }
+        Number quantity = stored.get("quantity", Number.class);
+        long view = (quantity != null ? quantity.longValue() : 0) + pending.get(id).sum();
+        if (unacknowledged != null && !unacknowledged.id().equals(stored.getString(ProductRepository.LEDGER_FLUSH))) {
+            // not applied to this product yet: count it, as its resend will
+            view += unacknowledged.deltas().getOrDefault(id, 0L);
+        }
+        return new AtomicLong(view);
+    }
+
+    private Duration writeTimeout() {
+        return flushInterval.multipliedBy(10).plusSeconds(5);
+    }
+
+    private CompletableFuture<Void> appendJournal(byte type, Map<Long, Long> amounts) {
+        return CompletableFuture.allOf(amounts.entrySet().stream()
+                .map(e -> appendJournal(type, e.getKey(), e.getValue()))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    private CompletableFuture<Void> appendJournal(byte type, long id, long amount) {
+        JournalRecord record = new JournalRecord(type, id, amount, new CompletableFuture<>());
+        journalQueue.add(record);
+        journalWriter.execute(this::writeJournal);
+        return record.written();
+    }
+
+    /** Appends every queued record with one write (and one fsync), then completes their futures. */
+    private void writeJournal() {
+        List<JournalRecord> batch = new ArrayList<>();
+        for (JournalRecord record = journalQueue.poll(); record != null; record = journalQueue.poll()) {
+            batch.add(record);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * batch.size());
+        batch.forEach(r -> buffer.put(r.type()).putLong(r.id()).putLong(r.amount()));
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            if (journalFsync) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            UncheckedIOException failure = new UncheckedIOException("Failed to append to inventory journal", e);
+            batch.forEach(r -> r.written().completeExceptionally(failure));
+            return;
+        }
+        batch.forEach(r -> {
+            apply(journaled, r.type(), r.id(), r.amount());
+            r.written().complete(null);
+        });
+    }
+
+    /**
+     * Replaces the journal with a snapshot of what it would recover: one record per product with unflushed
+     * deltas. Runs on the journal writer thread, or during startup before it exists.
+     */
+    private void compactJournal() {
+        ByteBuffer snapshot = ByteBuffer.allocate(RECORD_SIZE * 2 * journaled.size());
+        journaled.forEach((id, state) -> {
+            if (state.unflushed != 0) {
+                snapshot.put(RECORD_DELTA).putLong(id).putLong(state.unflushed);
+            }
+            if (state.inFlight != 0) {
+                snapshot.put(RECORD_FLUSHING).putLong(id).putLong(state.inFlight);
+            }
+        });
+        snapshot.flip();
+        Path compacted = journalPath.resolveSibling(journalPath.getFileName() + ".compact");
+        try {
+            try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (snapshot.hasRemaining()) {
+                    out.write(snapshot);
+                }
+                if (journalFsync) {
+                    out.force(false);
+                }
+            }
+            Files.move(compacted, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            FileChannel previous = journal;
+            journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (previous != null) {
+                previous.close();
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to compact inventory journal", e);
+        }
+    }
+
+    /**
+     * Rebuilds unflushed deltas from the journal left by a previous run.
+     */
+    void replayJournal() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        Map<Long, JournalState> replayed = new HashMap<>();
+        ByteBuffer all = ByteBuffer.wrap(Files.readAllBytes(journalPath));
+        while (all.remaining() >= RECORD_SIZE) {
+            apply(replayed, all.get(), all.getLong(), all.getLong());
+        }
+        Map<Long, Long> unflushed = new HashMap<>();
+        replayed.forEach((id, state) -> {
+            // A flush cut short by the crash may or may not have reached Mongo: assume whichever can't oversell
+            long recovered = state.inFlight > 0 ? state.unflushed - state.inFlight : state.unflushed;
+            if (recovered != 0) {
+                unflushed.put(id, recovered);
+            }
+        });
+        unflushed.forEach((id, delta) -> {
+            pending.computeIfAbsent(id, k -> newCounter()).add(delta);
+            journaled.computeIfAbsent(id, k -> new JournalState()).unflushed += delta;
+        });
+        if (!unflushed.isEmpty()) {
+            LOG.infof("Recovered unflushed inventory deltas from journal: %s", unflushed);
+        }
+    }
+
+    private static void apply(Map<Long, JournalState> states, byte type, long id, long amount) {
+        JournalState state = states.computeIfAbsent(id, k -> new JournalState());
+        switch (type) {
+            case RECORD_DELTA -> state.unflushed += amount;
+            case RECORD_FLUSHING -> state.inFlight = amount;
+            case RECORD_FLUSHED -> {
+                state.unflushed -= amount;
+                state.inFlight = 0;
+            }
+            case RECORD_FLUSH_ABORTED -> state.inFlight = 0;
+            default -> LOG.warnf("Skipping unknown inventory journal record type %d", type);
+        }
+        if (state.unflushed == 0 && state.inFlight == 0) {
+            states.remove(id);
+        }
+    }
+
+    private static StripedCounter newCounter() {
+        return new StripedCounter(Runtime.getRuntime().availableProcessors());
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread t = new Thread(task, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    /** Deltas sent to Mongo under one flush id. */
+    private record PendingFlush(String id, Map<Long, Long> deltas) {
+    }
+
+    /** A journal entry waiting to be written. */
+    private record JournalRecord(byte type, long id, long amount, CompletableFuture<Void> written) {
+    }
+
+    /** Unflushed delta of one product, and the amount of a flush sent but not yet acknowledged. */
+    private static final class JournalState {
+        long unflushed;
+        long inFlight;
+    }
+}
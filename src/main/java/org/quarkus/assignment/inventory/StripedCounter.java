@@ -0,0 +1,44 @@
+package org.quarkus.assignment.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter spread over several cache-line-padded cells so concurrent writers rarely contend.
+ * Unlike {@link java.util.concurrent.atomic.LongAdder#sumThenReset()}, {@link #drain()} never loses an
+ * update that races with it: each cell is emptied with an atomic get-and-set.
+ */
+class StripedCounter {
+
+    /** Longs per cell, so that two cells never share a 64-byte cache line. */
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    StripedCounter(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.cells = new AtomicLongArray(size * PADDING);
+        this.mask = size - 1;
+    }
+
+    void add(long delta) {
+        int cell = (int) (Thread.currentThread().threadId() & mask);
+        cells.addAndGet(cell * PADDING, delta);
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    long drain() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.getAndSet(i * PADDING, 0);
+        }
+        return sum;
+    }
+}
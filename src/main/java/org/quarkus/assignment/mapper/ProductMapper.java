@@ -1,9 +1,14 @@
 package org.quarkus.assignment.mapper;
 
+import org.quarkus.assignment.dto.AvailabilityResponse;
 import org.quarkus.assignment.dto.ProductResponse;
 import org.quarkus.assignment.dto.SummaryDto;
 import org.quarkus.assignment.model.Product;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
 public class ProductMapper {
 	public static ProductResponse toResponse(Product p) {
 		return ProductResponse.builder()
@@ -12,6 +17,36 @@ public class ProductMapper {
 				.description(p.getDescription())
 				.price(p.getPrice())
 				.quantity(p.getQuantity())
+				.version(p.getVersion())
+				.build();
+	}
+
+	public static Map<String, Object> toSparseResponse(Product p, Set<String> fields) {
+		Map<String, Object> body = new LinkedHashMap<>();
+		for (String field : fields) {
+			switch (field) {
+				case "id" -> body.put(field, p.getId());
+				case "name" -> body.put(field, p.getName());
+				case "description" -> body.put(field, p.getDescription());
+				case "price" -> body.put(field, p.getPrice());
+				case "quantity" -> body.put(field, p.getQuantity());
+				case "version" -> body.put(field, p.getVersion());
+				default -> throw new IllegalArgumentException("Unknown product field " + field);
+			}
+		}
+		return body;
+	}
+
+	public static AvailabilityResponse toAvailability(long id, int requested, Product p) {
+		return toAvailability(id, requested, p.getQuantity() != null ? p.getQuantity() : 0);
+	}
+
+	public static AvailabilityResponse toAvailability(long id, int requested, int availableQuantity) {
+		return AvailabilityResponse.builder()
+				.id(id)
+				.requested(requested)
+				.available(availableQuantity >= requested)
+				.availableQuantity(availableQuantity)
 				.build();
 	}
 
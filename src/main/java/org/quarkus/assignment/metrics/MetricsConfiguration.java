@@ -0,0 +1,43 @@
+package org.quarkus.assignment.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+import java.util.Set;
+
+/**
+ * Latency distribution settings for the timers exposed on {@code /q/metrics}.
+ * <p>
+ * HTTP endpoint timers ({@code http.server.requests}, tagged by uri template, method, status and outcome)
+ * and Mongo command timers ({@code mongodb.driver.commands}, tagged by command name) publish
+ * p50/p95/p99 plus a histogram so percentiles can also be aggregated across replicas. The batched lookup
+ * distributions ({@code products.batch.size}, {@code products.batch.wait}, see {@code ProductBatchLoader}) get the
+ * same treatment.
+ */
+@Singleton
+public class MetricsConfiguration {
+
+    private static final Set<String> PERCENTILE_METERS = Set.of("http.server.requests", "mongodb.driver.commands",
+            "products.batch.size", "products.batch.wait");
+
+    @Produces
+    @Singleton
+    public MeterFilter latencyPercentiles() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!PERCENTILE_METERS.contains(id.getName())) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.95, 0.99)
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
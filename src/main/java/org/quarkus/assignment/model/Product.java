@@ -13,4 +13,5 @@ public class Product {
     private String description;
     private Double price;
     private Integer quantity;
+    private Long version;
 }
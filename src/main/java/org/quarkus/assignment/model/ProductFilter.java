@@ -0,0 +1,22 @@
+package org.quarkus.assignment.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Criteria of a filtered, keyset-paginated product query. Null bounds are not applied.
+ */
+@Value
+@Builder
+public class ProductFilter {
+	Double minPrice;
+	Double maxPrice;
+	Integer minQuantity;
+	ProductSortField sortBy;
+	SortOrder order;
+	/** Sort key of the last product of the previous page (price when sorting by price). */
+	Double afterPrice;
+	/** Id of the last product of the previous page; null for the first page. */
+	Long afterId;
+	int limit;
+}
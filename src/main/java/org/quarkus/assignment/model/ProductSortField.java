@@ -0,0 +1,6 @@
+package org.quarkus.assignment.model;
+
+public enum ProductSortField {
+	PRICE,
+	ID
+}
@@ -0,0 +1,38 @@
+package org.quarkus.assignment.persistence;
+
+import io.quarkus.mongodb.panache.PanacheMongoRepositoryBase;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.SortOrder;
+
+import java.util.List;
+
+/**
+ * Blocking counterpart of {@link ProductRepository} over the same collection, used by the virtual-thread
+ * execution mode ({@code app.execution.mode=virtual-threads}). Calls block the caller until Mongo answers,
+ * so they must only run on virtual (or worker) threads, never on the event loop.
+ */
+@ApplicationScoped
+public class BlockingProductRepository implements PanacheMongoRepositoryBase<Product, Long> {
+
+    /**
+     * Reads one keyset page ordered by id.
+     * @param after only products with a greater id are returned; null starts at the beginning
+     * @param limit page size
+     * @return products of the page
+     */
+    public List<Product> findAfter(Long after, int limit) {
+        Sort sort = Sort.ascending("_id");
+        return (after == null ? findAll(sort) : find("_id > ?1", sort, after)).page(0, limit).list();
+    }
+
+    /**
+     * Lists every product by price, with id as tie breaker.
+     * @param order sort order
+     * @return sorted products
+     */
+    public List<Product> listByPrice(SortOrder order) {
+        return findAll(ProductRepository.byPrice(order)).list();
+    }
+}
@@ -0,0 +1,102 @@
+package org.quarkus.assignment.persistence;
+
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.quarkus.assignment.model.ProductFilter;
+import org.quarkus.assignment.model.ProductSortField;
+import org.quarkus.assignment.model.SortOrder;
+import org.quarkus.assignment.storage.ProductStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates and verifies the secondary indexes the product queries rely on.
+ * <p>
+ * At startup every {@link #INDEXES declared index} is created when missing; an existing index with the same name
+ * but different keys is reported, never dropped. The filter query is then explained, and a warning is logged when
+ * its winning plan still contains an in-memory SORT stage. Skipped unless Mongo is the storage backend.
+ */
+@ApplicationScoped
+public class ProductIndexManager {
+
+    private static final Logger LOG = Logger.getLogger(ProductIndexManager.class);
+
+    /** Serves price ranges and price-sorted pages (both directions) with id as tie breaker. */
+    static final Bson PRICE_ID = Indexes.compoundIndex(Indexes.ascending("price"), Indexes.ascending("_id"));
+
+    /** Index name to key document. */
+    static final Map<String, Bson> INDEXES = Map.of("price_1__id_1", PRICE_ID);
+
+    @ConfigProperty(name = "app.mongo.indexes.manage", defaultValue = "true")
+    boolean manage;
+
+    @Inject
+    ProductRepository repository;
+
+    @Inject
+    ProductStore store;
+
+    void onStart(@Observes StartupEvent event) {
+        if (manage && store.supportsQueries()) {
+            ensureIndexes()
+                    .call(this::verifyFilterPlan)
+                    .subscribe().with(
+                            created -> LOG.infof("Product indexes verified (created: %s)", created),
+                            failure -> LOG.error("Product index management failed", failure));
+        }
+    }
+
+    /**
+     * Creates the declared indexes that do not exist yet.
+     * @return Uni emitting the names of the indexes that were created
+     */
+    public Uni<List<String>> ensureIndexes() {
+        return repository.mongoCollection().listIndexes().collect().asList().onItem().transformToUni(existing -> {
+            Map<String, Document> byName = existing.stream()
+                    .collect(Collectors.toMap(index -> index.getString("name"), Function.identity()));
+            List<Uni<String>> creations = new ArrayList<>();
+            INDEXES.forEach((name, keys) -> {
+                Document current = byName.get(name);
+                if (current == null) {
+                    creations.add(repository.mongoCollection().createIndex(keys, new IndexOptions().name(name)));
+                } else if (!current.get("key", Document.class).toBsonDocument().equals(keys.toBsonDocument())) {
+                    LOG.errorf("Index %s exists with keys %s instead of %s; drop it to let it be recreated",
+                            name, current.get("key"), keys.toBsonDocument());
+                }
+            });
+            if (creations.isEmpty()) {
+                return Uni.createFrom().item(List.<String>of());
+            }
+            return Uni.join().all(creations).andFailFast();
+        });
+    }
+
+    private Uni<Void> verifyFilterPlan(List<String> created) {
+        ProductFilter probe = ProductFilter.builder()
+                .minPrice(0d).sortBy(ProductSortField.PRICE).order(SortOrder.ASC).limit(1).build();
+        Document explain = new Document("explain", new Document("find", repository.mongoCollection().getNamespace().getCollectionName())
+                .append("filter", ProductRepository.toFilterQuery(probe).toBsonDocument())
+                .append("sort", ProductRepository.toFilterSort(probe).toBsonDocument())
+                .append("limit", probe.getLimit()))
+                .append("verbosity", "queryPlanner");
+        return repository.mongoDatabase().runCommand(explain).onItem().invoke(result -> {
+            Object winningPlan = result.get("queryPlanner", Document.class).get("winningPlan");
+            if (String.valueOf(winningPlan).contains("stage=SORT")) {
+                LOG.warnf("Price-sorted product queries still sort in memory: %s", winningPlan);
+            }
+        }).replaceWithVoid();
+    }
+}
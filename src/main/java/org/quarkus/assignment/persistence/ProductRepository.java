@@ -1,9 +1,416 @@
 package org.quarkus.assignment.persistence;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BucketOptions;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Facet;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import io.quarkus.mongodb.FindOptions;
 import io.quarkus.mongodb.panache.reactive.ReactivePanacheMongoRepositoryBase;
+import io.quarkus.panache.common.Sort;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
 import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.ProductFilter;
+import org.quarkus.assignment.model.ProductSortField;
+import org.quarkus.assignment.model.SortOrder;
+import org.quarkus.assignment.util.ProductETags;
+import org.quarkus.assignment.util.ProductFields;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class ProductRepository implements ReactivePanacheMongoRepositoryBase<Product, Long> {
+
+    /** Added to every update so that each write yields a new version (and ETag). */
+    private static final Bson BUMP_VERSION = Updates.inc("version", 1L);
+
+    /** Stored field holding the id of the last inventory ledger flush applied to a product. */
+    public static final String LEDGER_FLUSH = "ledgerFlush";
+
+    /** Id of the histogram bucket that collects prices below the first boundary. */
+    public static final String BELOW_FIRST_BUCKET = "below";
+
+    /**
+     * Inserts products with a single unordered insertMany. Documents whose id already exists are
+     * rejected by the server while the rest of the batch is still written. Every inserted product
+     * starts at {@link ProductETags#firstVersion()}.
+     * @param products products to insert
+     * @return Uni emitting the number of products rejected as duplicate keys
+     */
+    public Uni<Integer> insertUnordered(List<Product> products) {
+        long version = ProductETags.firstVersion();
+        products.forEach(p -> p.setVersion(version));
+        return mongoCollection().insertMany(products, new InsertManyOptions().ordered(false))
+            .onItem().transform(result -> 0)
+            .onFailure(MongoBulkWriteException.class).recoverWithUni(failure -> {
+                MongoBulkWriteException bulkFailure = (MongoBulkWriteException) failure;
+                if (!onlyDuplicateKeys(bulkFailure)) {
+                    return Uni.createFrom().failure(failure);
+                }
+                return Uni.createFrom().item(bulkFailure.getWriteErrors().size());
+            });
+    }
+
+    /**
+     * Tells whether a bulk write failed only because some documents already existed. A write concern error means
+     * the accepted writes may not be durable, so it is never treated as such, with or without write errors.
+     * @param failure failed bulk write
+     * @return true when there is at least one write error, every one is a duplicate key, and no write concern error
+     */
+    public static boolean onlyDuplicateKeys(MongoBulkWriteException failure) {
+        List<BulkWriteError> errors = failure.getWriteErrors();
+        return failure.getWriteConcernError() == null && !errors.isEmpty()
+                && errors.stream().allMatch(e -> ErrorCategory.fromErrorCode(e.getCode()) == ErrorCategory.DUPLICATE_KEY);
+    }
+
+    /**
+     * Applies the non-null fields of each product as a $set upsert, all in one unordered bulkWrite.
+     * No document is read beforehand; fields left null in a patch keep their stored value.
+     * @param patches partial products keyed by id
+     * @return Uni emitting the bulk write result (upserts are creations, matches are updates)
+     */
+    public Uni<BulkWriteResult> upsertFields(List<Product> patches) {
+        long firstVersion = ProductETags.firstVersion();
+        List<WriteModel<Product>> writes = patches.stream()
+                .map(p -> new UpdateOneModel<Product>(Filters.eq("_id", p.getId()), toUpsertPipeline(p, firstVersion), new UpdateOptions().upsert(true)))
+                .collect(Collectors.toList());
+        return mongoCollection().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+    }
+
+    /**
+     * Replaces each product whole (creating missing ones), all in one unordered bulkWrite. Each replacement
+     * derives the new version from the stored one in the same update, so two concurrent replacements of a
+     * product can never end up with the same version.
+     * @param products full products keyed by id
+     * @return Uni emitting the bulk write result (upserts are creations, matches are replacements)
+     */
+    public Uni<BulkWriteResult> replaceAll(List<Product> products) {
+        long firstVersion = ProductETags.firstVersion();
+        List<WriteModel<Product>> writes = products.stream()
+                .map(p -> new UpdateOneModel<Product>(Filters.eq("_id", p.getId()), toReplacePipeline(p, firstVersion), new UpdateOptions().upsert(true)))
+                .collect(Collectors.toList());
+        return mongoCollection().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+    }
+
+    /**
+     * Applies the non-null fields of a patch when the product exists, whatever its version.
+     * @param patch partial product keyed by id
+     * @return Uni emitting the product after the update, or null when it is missing
+     */
+    public Uni<Product> updateIfPresent(Product patch) {
+        return mongoCollection().findOneAndUpdate(
+                Filters.eq("_id", patch.getId()),
+                toSetUpdate(patch),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+    }
+
+    /**
+     * Applies the non-null fields of a patch only when the stored version equals {@code expectedVersion}.
+     * Version 0 also matches documents written before versioning existed.
+     * @param patch partial product keyed by id
+     * @param expectedVersion version the client last saw
+     * @return Uni emitting the product after the update, or null when it is missing or the version differs
+     */
+    public Uni<Product> updateIfVersion(Product patch, long expectedVersion) {
+        Bson version = expectedVersion == 0
+                ? Filters.or(Filters.eq("version", 0L), Filters.exists("version", false))
+                : Filters.eq("version", expectedVersion);
+        return mongoCollection().findOneAndUpdate(
+                Filters.and(Filters.eq("_id", patch.getId()), version),
+                toSetUpdate(patch),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+    }
+
+    /**
+     * Builds the update document for a patch: one $set per non-null field plus a version increment.
+     * @param patch partial product
+     * @return update document
+     */
+    public static Bson toSetUpdate(Product patch) {
+        List<Bson> updates = new ArrayList<>(5);
+        if (patch.getName() != null) updates.add(Updates.set("name", patch.getName()));
+        if (patch.getDescription() != null) updates.add(Updates.set("description", patch.getDescription()));
+        if (patch.getPrice() != null) updates.add(Updates.set("price", patch.getPrice()));
+        if (patch.getQuantity() != null) updates.add(Updates.set("quantity", patch.getQuantity()));
+        updates.add(BUMP_VERSION);
+        return Updates.combine(updates);
+    }
+
+    /**
+     * Builds a pipeline update that sets the non-null fields of a patch and bumps the version, or starts it at
+     * {@code firstVersion} when the update inserts the product.
+     * @param patch partial product
+     * @param firstVersion version of a newly created product
+     * @return single-stage update pipeline
+     */
+    public static List<Bson> toUpsertPipeline(Product patch, long firstVersion) {
+        Document set = new Document();
+        if (patch.getName() != null) set.append("name", literal(patch.getName()));
+        if (patch.getDescription() != null) set.append("description", literal(patch.getDescription()));
+        if (patch.getPrice() != null) set.append("price", literal(patch.getPrice()));
+        if (patch.getQuantity() != null) set.append("quantity", literal(patch.getQuantity()));
+        set.append("version", nextVersion(firstVersion));
+        return List.of(new Document("$set", set));
+    }
+
+    /**
+     * Builds a pipeline update that replaces the whole product, dropping fields left null, and bumps the
+     * version, or starts it at {@code firstVersion} when the update inserts the product.
+     * @param product full product
+     * @param firstVersion version of a newly created product
+     * @return single-stage update pipeline
+     */
+    public static List<Bson> toReplacePipeline(Product product, long firstVersion) {
+        Document replacement = new Document("_id", product.getId())
+                .append("name", literalOrRemove(product.getName()))
+                .append("description", literalOrRemove(product.getDescription()))
+                .append("price", literalOrRemove(product.getPrice()))
+                .append("quantity", literalOrRemove(product.getQuantity()))
+                .append("version", nextVersion(firstVersion));
+        return List.of(new Document("$replaceWith", replacement));
+    }
+
+    /** The stored version plus one; {@code firstVersion} when there is none (a new or pre-versioning product). */
+    private static Document nextVersion(long firstVersion) {
+        return new Document("$ifNull", List.of(new Document("$add", List.of("$version", 1L)), firstVersion));
+    }
+
+    /** Wraps a value so that a pipeline never reads a string such as "$x" as a field path. */
+    private static Document literal(Object value) {
+        return new Document("$literal", value);
+    }
+
+    private static Object literalOrRemove(Object value) {
+        return value != null ? literal(value) : "$$REMOVE";
+    }
+
+    /**
+     * Atomically takes {@code count} units of stock when at least that many are available.
+     * @param id product id
+     * @param count units to take
+     * @return Uni emitting the product after the decrement, or null when it is missing or short of stock
+     */
+    public Uni<Product> reserve(long id, int count) {
+        return mongoCollection().findOneAndUpdate(
+                Filters.and(Filters.eq("_id", id), Filters.gte("quantity", count)),
+                Updates.combine(Updates.inc("quantity", -count), BUMP_VERSION),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+    }
+
+    /**
+     * Gives back {@code count} units of stock taken by {@link #reserve(long, int)}.
+     * @param id product id
+     * @param count units to return
+     * @return Uni completing when the increment is acknowledged
+     */
+    public Uni<Void> release(long id, int count) {
+        return mongoCollection().updateOne(Filters.eq("_id", id), Updates.combine(Updates.inc("quantity", count), BUMP_VERSION)).replaceWithVoid();
+    }
+
+    /**
+     * Finds products reading only the given fields; the others are left null. The version is always read
+     * so that ETags can still be computed.
+     * @param filter query document
+     * @param sort sort document, or null for natural order
+     * @param limit maximum number of products, or null for all
+     * @param fields response field names (see {@code ProductFields})
+     * @return Uni emitting the partially loaded products
+     */
+    public Uni<List<Product>> findProjected(Bson filter, Bson sort, Integer limit, Set<String> fields) {
+        FindOptions options = new FindOptions().projection(toProjection(fields));
+        if (sort != null) {
+            options.sort(sort);
+        }
+        if (limit != null) {
+            options.limit(limit);
+        }
+        return mongoCollection().find(filter, options).collect().asList();
+    }
+
+    /**
+     * Finds products as undecoded BSON, for responses that are transcoded straight to JSON.
+     * @param filter query document
+     * @param sort sort document, or null for natural order
+     * @param limit maximum number of documents, or null for all
+     * @return Uni emitting the raw documents
+     */
+    public Uni<List<RawBsonDocument>> findRaw(Bson filter, Bson sort, Integer limit) {
+        FindOptions options = new FindOptions();
+        if (sort != null) {
+            options.sort(sort);
+        }
+        if (limit != null) {
+            options.limit(limit);
+        }
+        return mongoCollection().withDocumentClass(RawBsonDocument.class).find(filter, options).collect().asList();
+    }
+
+    /**
+     * Builds the projection of a sparse fieldset. The id is always returned by Mongo.
+     * @param fields response field names
+     * @return projection document including the stored fields and the version
+     */
+    public static Bson toProjection(Set<String> fields) {
+        Set<String> stored = new LinkedHashSet<>();
+        fields.stream().map(ProductFields.STORED_NAMES::get).filter(name -> !"_id".equals(name)).forEach(stored::add);
+        stored.add("version");
+        return Projections.include(new ArrayList<>(stored));
+    }
+
+    /**
+     * Computes inventory statistics in one aggregation, so only the summary leaves the database.
+     * @param lowStockThreshold products with a quantity below this count as low on stock
+     * @param boundaries ascending lower bounds of the price histogram buckets; the last bucket is open ended
+     * @return Uni emitting a document with {@code totals}, {@code lowStock} and {@code priceHistogram} arrays
+     */
+    public Uni<Document> aggregateStats(int lowStockThreshold, List<Double> boundaries) {
+        return mongoCollection().aggregate(statsPipeline(lowStockThreshold, boundaries), Document.class)
+            .collect().first();
+    }
+
+    /**
+     * Builds the statistics pipeline: a single $facet whose branches $group the totals, $count the low-stock
+     * products and $bucket the prices.
+     * @param lowStockThreshold products with a quantity below this count as low on stock
+     * @param boundaries ascending lower bounds of the price histogram buckets
+     * @return aggregation pipeline
+     */
+    public static List<Bson> statsPipeline(int lowStockThreshold, List<Double> boundaries) {
+        Document quantity = new Document("$ifNull", List.of("$quantity", 0));
+        Document stockValue = new Document("$multiply", List.of(new Document("$ifNull", List.of("$price", 0)), quantity));
+        List<Double> bucketBoundaries = new ArrayList<>(boundaries);
+        bucketBoundaries.add(Double.POSITIVE_INFINITY);
+        return List.of(Aggregates.facet(
+                new Facet("totals", Aggregates.group(null,
+                        Accumulators.sum("productCount", 1),
+                        Accumulators.sum("totalQuantity", quantity),
+                        Accumulators.sum("totalStockValue", stockValue),
+                        Accumulators.min("minPrice", "$price"),
+                        Accumulators.max("maxPrice", "$price"),
+                        Accumulators.avg("avgPrice", "$price"))),
+                new Facet("lowStock",
+                        // Same missing-quantity-as-0 rule as the totals
+                        Aggregates.match(Filters.expr(new Document("$lt", List.of(quantity, lowStockThreshold)))),
+                        Aggregates.count("count")),
+                new Facet("priceHistogram",
+                        Aggregates.match(Filters.type("price", "number")),
+                        Aggregates.bucket("$price", bucketBoundaries, new BucketOptions()
+                                .defaultBucket(BELOW_FIRST_BUCKET)
+                                .output(Accumulators.sum("count", 1), Accumulators.sum("totalQuantity", quantity))))));
+    }
+
+    /**
+     * Finds one keyset page of products matching a filter. Sorting by price is backed by the
+     * {@code price_1__id_1} index created by {@link ProductIndexManager}.
+     * @param filter bounds, sort and position after the previous page
+     * @return Uni emitting at most {@code filter.limit} products in sort order
+     */
+    public Uni<List<Product>> findFiltered(ProductFilter filter) {
+        return mongoCollection()
+                .find(toFilterQuery(filter), new FindOptions().sort(toFilterSort(filter)).limit(filter.getLimit()))
+                .collect().asList();
+    }
+
+    /**
+     * Builds the query of a filter. When sorting by price, products without a price are left out so the
+     * keyset condition stays well defined.
+     * @param filter bounds and position after the previous page
+     * @return query document
+     */
+    public static Bson toFilterQuery(ProductFilter filter) {
+        boolean byPrice = filter.getSortBy() == ProductSortField.PRICE;
+        boolean descending = filter.getOrder() == SortOrder.DESC;
+        List<Bson> conditions = new ArrayList<>(4);
+        if (byPrice || filter.getMinPrice() != null) {
+            conditions.add(Filters.gte("price", filter.getMinPrice() != null ? filter.getMinPrice() : Double.NEGATIVE_INFINITY));
+        }
+        if (filter.getMaxPrice() != null) {
+            conditions.add(Filters.lte("price", filter.getMaxPrice()));
+        }
+        if (filter.getMinQuantity() != null) {
+            conditions.add(Filters.gte("quantity", filter.getMinQuantity()));
+        }
+        if (filter.getAfterId() != null) {
+            Bson idAfter = descending ? Filters.lt("_id", filter.getAfterId()) : Filters.gt("_id", filter.getAfterId());
+            if (byPrice) {
+                Bson priceAfter = descending ? Filters.lt("price", filter.getAfterPrice()) : Filters.gt("price", filter.getAfterPrice());
+                conditions.add(Filters.or(priceAfter, Filters.and(Filters.eq("price", filter.getAfterPrice()), idAfter)));
+            } else {
+                conditions.add(idAfter);
+            }
+        }
+        return conditions.isEmpty() ? new Document() : Filters.and(conditions);
+    }
+
+    /**
+     * Builds the sort of a filter; price ties are broken by id so pages never overlap.
+     * @param filter sort field and order
+     * @return sort document
+     */
+    public static Bson toFilterSort(ProductFilter filter) {
+        boolean descending = filter.getOrder() == SortOrder.DESC;
+        if (filter.getSortBy() == ProductSortField.PRICE) {
+            return descending ? Sorts.descending("price", "_id") : Sorts.ascending("price", "_id");
+        }
+        return descending ? Sorts.descending("_id") : Sorts.ascending("_id");
+    }
+
+    /**
+     * Sort by price with id as tie breaker, matching the {@code price_1__id_1} index in either direction.
+     * @param order sort order
+     * @return Panache sort
+     */
+    public static Sort byPrice(SortOrder order) {
+        return order == SortOrder.DESC ? Sort.descending("price", "_id") : Sort.ascending("price", "_id");
+    }
+
+    /**
+     * Applies net quantity changes with one unordered bulkWrite of $inc operations. Each product records the flush
+     * id and is skipped when it already carries it, so resending a flush after a timeout or partial failure never
+     * applies a delta twice.
+     * @param deltas quantity change per product id
+     * @param flushId id shared by every attempt of the same flush
+     * @return Uni emitting the bulk write result
+     */
+    public Uni<BulkWriteResult> incrementQuantities(Map<Long, Long> deltas, String flushId) {
+        List<WriteModel<Product>> writes = deltas.entrySet().stream()
+                .map(e -> new UpdateOneModel<Product>(Filters.and(Filters.eq("_id", e.getKey()), Filters.ne(LEDGER_FLUSH, flushId)),
+                        Updates.combine(Updates.inc("quantity", e.getValue()), Updates.set(LEDGER_FLUSH, flushId), BUMP_VERSION)))
+                .collect(Collectors.toList());
+        return mongoCollection().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+    }
+
+    /**
+     * Reads what the inventory ledger needs of one product: its quantity and the last flush applied to it.
+     * @param id product id
+     * @return Uni emitting {@code quantity} and {@link #LEDGER_FLUSH} (either may be missing), or null when absent
+     */
+    public Uni<Document> findInventory(long id) {
+        return mongoCollection().withDocumentClass(Document.class)
+                .find(Filters.eq("_id", id), new FindOptions().projection(Projections.include("quantity", LEDGER_FLUSH)).limit(1))
+                .collect().first();
+    }
 }
@@ -0,0 +1,81 @@
+package org.quarkus.assignment.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Character trie over the indexed terms, used to expand a query prefix into the terms it starts.
+ * Not thread-safe; {@link ProductSearchIndex} guards it with its lock.
+ */
+final class PrefixTrie {
+
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>(4);
+        boolean terminal;
+    }
+
+    private final Node root = new Node();
+
+    void add(String term) {
+        Node node = root;
+        for (int i = 0; i < term.length(); i++) {
+            node = node.children.computeIfAbsent(term.charAt(i), c -> new Node());
+        }
+        node.terminal = true;
+    }
+
+    void remove(String term) {
+        Deque<Node> path = new ArrayDeque<>(term.length() + 1);
+        Node node = root;
+        for (int i = 0; i < term.length() && node != null; i++) {
+            path.push(node);
+            node = node.children.get(term.charAt(i));
+        }
+        if (node == null || !node.terminal) {
+            return;
+        }
+        node.terminal = false;
+        // Prune the branch back up to the nearest node still in use
+        for (int i = term.length() - 1; i >= 0 && !node.terminal && node.children.isEmpty(); i--) {
+            Node parent = path.pop();
+            parent.children.remove(term.charAt(i));
+            node = parent;
+        }
+    }
+
+    /**
+     * Collects terms starting with {@code prefix}, the prefix itself included when it is a term.
+     * @param prefix lower-case prefix
+     * @param max upper bound on returned terms, keeping very short prefixes cheap
+     * @return matching terms, in no particular order
+     */
+    List<String> withPrefix(String prefix, int max) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        List<String> terms = new ArrayList<>();
+        if (node != null) {
+            collect(node, new StringBuilder(prefix), terms, max);
+        }
+        return terms;
+    }
+
+    private static void collect(Node node, StringBuilder term, List<String> out, int max) {
+        if (node.terminal) {
+            out.add(term.toString());
+        }
+        for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+            if (out.size() >= max) {
+                return;
+            }
+            term.append(child.getKey());
+            collect(child.getValue(), term, out, max);
+            term.setLength(term.length() - 1);
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package org.quarkus.assignment.search;
+
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.Value;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.quarkus.assignment.changes.ProductChangeEvent;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.storage.ProductStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over product names and descriptions.
+ * <p>
+ * Every query term must match (exactly, or as a prefix of an indexed term via a {@link PrefixTrie}).
+ * Matches are scored by term weight (name terms count {@value #NAME_WEIGHT}x) times inverse document frequency,
+ * with prefix matches at half weight, and the top k are kept in a bounded min-heap instead of sorting every match.
+ * <p>
+ * Built from Mongo at startup and kept current by {@code ProductService} on create, update, patch and delete,
+ * and by the change listener for writes on other nodes.
+ */
+@ApplicationScoped
+public class ProductSearchIndex {
+
+    private static final Logger LOG = Logger.getLogger(ProductSearchIndex.class);
+
+    private static final int NAME_WEIGHT = 3;
+    private static final double PREFIX_FACTOR = 0.5;
+
+    /** A ranked match. */
+    @Value
+    public static class Hit {
+        long id;
+        double score;
+    }
+
+    /** Ranked matches plus how many products matched in total. */
+    @Value
+    public static class Result {
+        List<Hit> hits;
+        int totalMatches;
+    }
+
+    /**
+     * Indexed text of one product, kept so partial patches can be merged without reading Mongo.
+     * {@code version} is null when the write that indexed it did not know the stored version;
+     * {@code stamp} orders local writes so a refresh can tell which ones happened after it started reading.
+     */
+    @Value
+    private static class Document {
+        String name;
+        String description;
+        Long version;
+        long stamp;
+        Map<String, Integer> terms;
+    }
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::getScore)
+            .thenComparing(Comparator.comparingLong(Hit::getId).reversed());
+
+    @ConfigProperty(name = "app.search.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "app.search.max-prefix-expansions", defaultValue = "64")
+    int maxPrefixExpansions;
+
+    @Inject
+    ProductStore store;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private PrefixTrie trie = new PrefixTrie();
+    /** Number of documents indexed so far; written under the write lock. */
+    private volatile long writes;
+    /** Ids written while a rebuild streams the collection; the rebuild must not overwrite them with older data. */
+    private volatile Set<Long> touchedDuringRebuild;
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            rebuild().subscribe().with(
+                    count -> LOG.infof("Search index built with %d products", count),
+                    failure -> LOG.warn("Search index build failed; search starts empty", failure));
+        }
+    }
+
+    /**
+     * Tells whether the index is maintained at all.
+     * @return value of {@code app.search.enabled}
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Finds the best matching products.
+     * @param query free text; every term must match
+     * @param limit maximum number of hits
+     * @return ranked hits
+     */
+    public Result search(String query, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (queryTerms.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Double>> perTerm = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                Map<Long, Double> scores = score(term);
+                if (scores.isEmpty()) {
+                    return new Result(List.of(), 0);
+                }
+                perTerm.add(scores);
+            }
+            // Drive the intersection from the rarest term
+            perTerm.sort(Comparator.comparingInt(Map::size));
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANKING);
+            int total = 0;
+            candidates:
+            for (Map.Entry<Long, Double> candidate : perTerm.get(0).entrySet()) {
+                double score = candidate.getValue();
+                for (int i = 1; i < perTerm.size(); i++) {
+                    Double other = perTerm.get(i).get(candidate.getKey());
+                    if (other == null) {
+                        continue candidates;
+                    }
+                    score += other;
+                }
+                total++;
+                top.offer(new Hit(candidate.getKey(), score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Hit> hits = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                hits.add(top.poll());
+            }
+            Collections.reverse(hits);
+            return new Result(hits, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> score(String queryTerm) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (String term : trie.withPrefix(queryTerm, maxPrefixExpansions)) {
+            Map<Long, Integer> docs = postings.get(term);
+            double idf = Math.log(1 + (double) documents.size() / docs.size());
+            double factor = term.equals(queryTerm) ? 1 : PREFIX_FACTOR;
+            docs.forEach((id, weight) -> scores.merge(id, weight * idf * factor, Math::max));
+        }
+        return scores;
+    }
+
+    /**
+     * Indexes complete products, replacing what was indexed for their ids.
+     * A product older than the indexed version of its id is ignored.
+     * @param products stored products
+     */
+    public void putAll(Collection<Product> products) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            products.stream()
+                    .filter(p -> !isOlder(p, documents.get(p.getId())))
+                    .forEach(p -> index(p.getId(), p.getName(), p.getDescription(), p.getVersion()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Merges partial products into the index: null fields keep their indexed text, as they do in Mongo.
+     * During a rebuild an id that has not been streamed yet has nothing to merge with, so it is re-read instead.
+     * @param patches partial products keyed by id
+     */
+    public void patchAll(Collection<Product> patches) {
+        if (!enabled) {
+            return;
+        }
+        List<Long> unmerged = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            Set<Long> touched = touchedDuringRebuild;
+            for (Product patch : patches) {
+                Document current = documents.get(patch.getId());
+                if (current == null && touched != null) {
+                    // Keep the older streamed copy out; the re-read below returns the patched document
+                    touched.add(patch.getId());
+                    unmerged.add(patch.getId());
+                    continue;
+                }
+                String name = patch.getName() != null ? patch.getName() : current != null ? current.getName() : null;
+                String description = patch.getDescription() != null ? patch.getDescription() : current != null ? current.getDescription() : null;
+                index(patch.getId(), name, description, patch.getVersion());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!unmerged.isEmpty()) {
+            refresh(unmerged).subscribe().with(
+                    ignored -> { }, failure -> LOG.warnf("Failed to refresh patched products %s in search index: %s", unmerged, failure.getMessage()));
+        }
+    }
+
+    /**
+     * Removes products from the index.
+     * @param ids product ids
+     */
+    public void removeAll(Collection<Long> ids) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ids.forEach(this::unindex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-reads products from Mongo and indexes them (or drops those that no longer exist).
+     * Ids written locally while the read was in flight keep the local write, which is at least as recent.
+     * @param ids product ids
+     * @return Uni completing once the index is updated
+     */
+    public Uni<Void> refresh(Collection<Long> ids) {
+        if (!enabled || ids.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        return Uni.createFrom().item(() -> writes)
+                .onItem().transformToUni(readFrom -> store.findByIds(ids).onItem().invoke(found -> {
+                    Set<Long> missing = new LinkedHashSet<>(ids);
+                    found.forEach(p -> missing.remove(p.getId()));
+                    lock.writeLock().lock();
+                    try {
+                        for (Product p : found) {
+                            Document current = documents.get(p.getId());
+                            if (!isOlder(p, current) && !writtenSince(current, readFrom)) {
+                                index(p.getId(), p.getName(), p.getDescription(), p.getVersion());
+                            }
+                        }
+                        for (Long id : missing) {
+                            if (!writtenSince(documents.get(id), readFrom)) {
+                                unindex(id);
+                            }
+                        }
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }))
+                .replaceWithVoid();
+    }
+
+    /**
+     * Rebuilds the index by streaming the whole collection. Writes that happen meanwhile win over the streamed data.
+     * @return Uni emitting the number of indexed products
+     */
+    public Uni<Integer> rebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            trie = new PrefixTrie();
+            touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return store.streamAll()
+                .group().intoLists().of(1000)
+                .onItem().invoke(batch -> {
+                    Set<Long> touched = touchedDuringRebuild;
+                    lock.writeLock().lock();
+                    try {
+                        batch.stream()
+                                .filter(p -> touched == null || !touched.contains(p.getId()))
+                                .forEach(p -> index(p.getId(), p.getName(), p.getDescription(), p.getVersion()));
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                })
+                .collect().with(Collectors.summingInt(List::size))
+                .onTermination().invoke(() -> touchedDuringRebuild = null);
+    }
+
+    void onProductChange(@Observes ProductChangeEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.getType()) {
+            case UPSERTED -> refresh(List.of(event.getId())).subscribe().with(
+                    ignored -> { }, failure -> LOG.warnf("Failed to refresh product %d in search index: %s", event.getId(), failure.getMessage()));
+            case DELETED -> removeAll(List.of(event.getId()));
+            case ALL -> rebuild().subscribe().with(
+                    count -> LOG.infof("Search index rebuilt with %d products", count),
+                    failure -> LOG.warn("Search index rebuild failed", failure));
+        }
+    }
+
+    /** True when both versions are known and the candidate is behind the indexed document. */
+    private static boolean isOlder(Product candidate, Document current) {
+        return candidate.getVersion() != null && current != null && current.getVersion() != null
+                && candidate.getVersion() < current.getVersion();
+    }
+
+    private static boolean writtenSince(Document current, long readFrom) {
+        return current != null && current.getStamp() > readFrom;
+    }
+
+    private void index(long id, String name, String description, Long version) {
+        unindex(id);
+        Map<String, Integer> terms = new HashMap<>();
+        tokenize(name).forEach(term -> terms.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(description).forEach(term -> terms.merge(term, 1, Integer::sum));
+        terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> {
+            trie.add(t);
+            return new HashMap<>();
+        }).put(id, weight));
+        documents.put(id, new Document(name, description, version, ++writes, terms));
+    }
+
+    private void unindex(long id) {
+        Set<Long> touched = touchedDuringRebuild;
+        if (touched != null) {
+            touched.add(id);
+        }
+        Document previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.getTerms().keySet()) {
+            Map<Long, Integer> docs = postings.get(term);
+            docs.remove(id);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+                trie.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Splits text into lower-case runs of letters and digits.
+     * @param text text to split, may be null
+     * @return terms in order of appearance
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,112 @@
+package org.quarkus.assignment.service;
+
+import io.quarkus.virtual.threads.VirtualThreads;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.quarkus.assignment.cache.ProductCache;
+import org.quarkus.assignment.dto.AvailabilityResponse;
+import org.quarkus.assignment.inventory.InventoryLedger;
+import org.quarkus.assignment.mapper.ProductMapper;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.SortOrder;
+import org.quarkus.assignment.persistence.BlockingProductRepository;
+import org.quarkus.assignment.storage.ProductStore;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Plain blocking versions of the {@link ProductService} read operations, run on virtual threads.
+ * <p>
+ * Active when {@code app.execution.mode=virtual-threads}; the controller then dispatches list, page, lookup by id,
+ * price-sorted and availability requests here instead of to the reactive pipelines. Each request gets its own
+ * virtual thread and reads through {@link BlockingProductRepository}, so the code is ordinary sequential Java
+ * that shows up as such in stack traces and profilers. The near cache and the inventory ledger are shared with the
+ * reactive mode; their asynchronous APIs are simply awaited, which only parks the virtual thread.
+ * <p>
+ * The blocking repository reads Mongo directly, so this mode is ignored unless Mongo is the storage backend.
+ */
+@ApplicationScoped
+public class BlockingProductService {
+
+    /** How requests are executed. */
+    public enum ExecutionMode { REACTIVE, VIRTUAL_THREADS }
+
+    @ConfigProperty(name = "app.execution.mode", defaultValue = "reactive")
+    ExecutionMode mode;
+
+    @Inject
+    @VirtualThreads
+    ExecutorService virtualThreads;
+
+    @Inject
+    BlockingProductRepository repository;
+
+    @Inject
+    ProductStore store;
+
+    @Inject
+    ProductCache cache;
+
+    @Inject
+    InventoryLedger ledger;
+
+    /**
+     * Tells whether requests should be dispatched here.
+     * @return true in virtual-thread mode on the Mongo backend
+     */
+    public boolean isActive() {
+        return mode == ExecutionMode.VIRTUAL_THREADS && store.supportsQueries();
+    }
+
+    /**
+     * Runs blocking work on a new virtual thread.
+     * @param work blocking operation
+     * @return Uni emitting the result once the virtual thread finishes
+     */
+    public <T> Uni<T> run(Supplier<T> work) {
+        return Uni.createFrom().item(work).runSubscriptionOn(virtualThreads);
+    }
+
+    public List<Product> getAllProducts() {
+        return repository.listAll();
+    }
+
+    public List<Product> getProductsAfter(Long after, int limit) {
+        return repository.findAfter(after, limit);
+    }
+
+    public Product getProductById(long id) {
+        // The blocking read runs on its own virtual thread, so the cache compute only starts it instead of
+        // holding its bin lock (and pinning this carrier) for a Mongo round trip
+        return cache.get(id, key -> Uni.createFrom().completionStage(
+                        () -> CompletableFuture.supplyAsync(() -> repository.findById(key), virtualThreads)))
+                .await().indefinitely();
+    }
+
+    public List<Product> getAllSortedByPrice(SortOrder order) {
+        return repository.listByPrice(order);
+    }
+
+    public AvailabilityResponse getAvailability(long id, int count) {
+        if (ledger.isHot(id)) {
+            long quantity = ledger.available(id).await().indefinitely();
+            return AvailabilityResponse.builder()
+                .id(id)
+                .requested(count)
+                .available(quantity >= count)
+                .availableQuantity((int) quantity)
+                .build();
+        }
+        Product product = getProductById(id);
+        if (product == null) {
+            throw new NotFoundException();
+        }
+        return ProductMapper.toAvailability(id, count, product);
+    }
+}
@@ -0,0 +1,151 @@
+package org.quarkus.assignment.service;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.quarkus.assignment.dto.CsvImportReport;
+import org.quarkus.assignment.dto.CsvRowError;
+import org.quarkus.assignment.dto.SummaryDto;
+import org.quarkus.assignment.util.CsvChunker;
+import org.quarkus.assignment.util.CsvProductParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk import of products from large CSV files.
+ * <p>
+ * The file is split into line-aligned chunks, each chunk is memory-mapped and parsed on a worker pool,
+ * and parsed chunks are written in file order through {@link ProductService#createProducts(List)}
+ * (unordered insertMany batches). Only a bounded window of chunks is parsed ahead of the writer.
+ */
+@ApplicationScoped
+public class CsvImportService {
+
+    private static final Logger LOG = Logger.getLogger(CsvImportService.class);
+
+    @Inject
+    ProductService productService;
+
+    @ConfigProperty(name = "app.csv.path")
+    Optional<String> csvPath;
+
+    @ConfigProperty(name = "app.csv.chunk-size", defaultValue = "8M")
+    MemorySize chunkSize;
+
+    @ConfigProperty(name = "app.csv.parallelism", defaultValue = "0")
+    int parallelism;
+
+    @ConfigProperty(name = "app.csv.max-reported-errors", defaultValue = "100")
+    int maxReportedErrors;
+
+    /**
+     * Imports the file configured by {@code app.csv.path}. Must be called on a worker thread.
+     * @return import report
+     */
+    public CsvImportReport importConfiguredFile() {
+        String path = csvPath.orElseThrow(() -> new BadRequestException("No CSV file configured (app.csv.path)"));
+        return importFile(Path.of(path));
+    }
+
+    /**
+     * Imports products from a CSV file. Must be called on a worker thread.
+     * @param path CSV file to read
+     * @return import report with write summary, throughput and the first row errors
+     */
+    public CsvImportReport importFile(Path path) {
+        if (!Files.isRegularFile(path)) {
+            throw new NotFoundException("CSV file not found: " + path);
+        }
+        long started = System.nanoTime();
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        CsvImportReport.CsvImportReportBuilder report = CsvImportReport.builder();
+        int created = 0;
+        int duplicates = 0;
+        long rows = 0;
+        long invalidRows = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             ExecutorService executor = Executors.newFixedThreadPool(workers)) {
+            String firstLine = CsvChunker.firstLine(channel);
+            CsvProductParser parser = parserFor(firstLine);
+            boolean hasHeader = CsvProductParser.isHeader(firstLine);
+            List<long[]> chunks = CsvChunker.split(channel, chunkSize.asLongValue());
+
+            Deque<Future<CsvProductParser.Result>> window = new ArrayDeque<>();
+            int next = 0;
+            long lineOffset = 0;
+            while (next < chunks.size() || !window.isEmpty()) {
+                while (next < chunks.size() && window.size() < workers * 2) {
+                    long[] chunk = chunks.get(next++);
+                    window.add(executor.submit(() -> parser.parse(
+                            channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]),
+                            hasHeader && chunk[0] == 0)));
+                }
+                CsvProductParser.Result parsed = window.poll().get();
+                for (CsvRowError error : parsed.getErrors()) {
+                    if (invalidRows < maxReportedErrors) {
+                        report.error(CsvRowError.builder().line(lineOffset + error.getLine()).message(error.getMessage()).build());
+                    }
+                    invalidRows++;
+                }
+                lineOffset += parsed.getLines();
+                rows += parsed.getProducts().size() + parsed.getErrors().size();
+                if (!parsed.getProducts().isEmpty()) {
+                    SummaryDto written = productService.createProducts(parsed.getProducts()).await().indefinitely();
+                    created += written.getCreated();
+                    duplicates += written.getDuplicates();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("CSV import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("CSV chunk parsing failed", e.getCause());
+        }
+        long durationNanos = System.nanoTime() - started;
+        double rowsPerSecond = durationNanos > 0 ? rows * 1_000_000_000d / durationNanos : 0;
+        LOG.infof("Imported %s: rows=%d created=%d duplicates=%d invalid=%d (%.0f rows/s)",
+                path, rows, created, duplicates, invalidRows, rowsPerSecond);
+        return report
+                .summary(SummaryDto.builder()
+                        .created(created)
+                        .duplicates(duplicates)
+                        .updated(0)
+                        .total((int) (rows - invalidRows))
+                        .build())
+                .rows(rows)
+                .invalidRows(invalidRows)
+                .durationMillis(durationNanos / 1_000_000)
+                .rowsPerSecond(rowsPerSecond)
+                .build();
+    }
+
+    private static CsvProductParser parserFor(String firstLine) {
+        try {
+            return CsvProductParser.forFirstLine(firstLine);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+    }
+}
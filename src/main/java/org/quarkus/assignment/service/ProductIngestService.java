@@ -0,0 +1,133 @@
+package org.quarkus.assignment.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.quarkus.assignment.dto.SummaryDto;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.util.ProductValidation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Streaming ingestion of large product arrays.
+ * <p>
+ * The request body is parsed element by element and written in fixed-size batches through
+ * {@link ProductService#createProducts(List)}. At most one batch is being written while the next one is
+ * parsed, so memory stays bounded by two batches and a slow database throttles the reader.
+ */
+@ApplicationScoped
+public class ProductIngestService {
+
+    private static final Logger LOG = Logger.getLogger(ProductIngestService.class);
+
+    @Inject
+    ObjectMapper mapper;
+
+    @Inject
+    ProductService productService;
+
+    @ConfigProperty(name = "app.products.ingest.batch-size", defaultValue = "1000")
+    int batchSize;
+
+    /**
+     * Parses a JSON array of products from the stream and creates them batch by batch.
+     * Must be called on a worker thread. Batches written before an invalid element is found are kept.
+     * @param body request body holding a JSON array of products
+     * @return summary accumulated over all batches
+     */
+    public SummaryDto ingest(InputStream body) {
+        Totals totals = new Totals();
+        CompletableFuture<SummaryDto> inFlight = null;
+        int index = 0;
+        try (JsonParser parser = mapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Body must be a JSON array of products");
+            }
+            List<Product> batch = new ArrayList<>(batchSize);
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new BadRequestException("Unexpected end of input after " + index + " products");
+                }
+                Product product = token == JsonToken.START_OBJECT ? mapper.readValue(parser, Product.class) : null;
+                if (!ProductValidation.isValidForCreate(product)) {
+                    throw new BadRequestException("Product at index " + index + ": " + ProductValidation.REQUIRED_FIELDS_MESSAGE);
+                }
+                batch.add(product);
+                index++;
+                if (batch.size() == batchSize) {
+                    totals.add(await(inFlight));
+                    inFlight = productService.createProducts(batch).subscribeAsCompletionStage();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (index == 0) {
+                throw new BadRequestException("Body must be a non-empty array of products");
+            }
+            totals.add(await(inFlight));
+            inFlight = null;
+            if (!batch.isEmpty()) {
+                totals.add(productService.createProducts(batch).await().indefinitely());
+            }
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Malformed JSON near product index " + index + ": " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (inFlight != null) {
+                // Let the batch already handed to the database settle before reporting the failure
+                inFlight.exceptionally(e -> null).join();
+            }
+        }
+        LOG.debugf("Ingested %d products: created=%d duplicates=%d", totals.total, totals.created, totals.duplicates);
+        return SummaryDto.builder()
+                .created(totals.created)
+                .duplicates(totals.duplicates)
+                .updated(0)
+                .total(totals.total)
+                .build();
+    }
+
+    private static SummaryDto await(CompletableFuture<SummaryDto> future) {
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    /** Running counters over the written batches. */
+    private static final class Totals {
+        int created;
+        int duplicates;
+        int total;
+
+        void add(SummaryDto summary) {
+            if (summary == null) {
+                return;
+            }
+            created += summary.getCreated();
+            duplicates += summary.getDuplicates();
+            total += summary.getTotal();
+        }
+    }
+}
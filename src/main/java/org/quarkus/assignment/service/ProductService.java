@@ -1,17 +1,46 @@
 package org.quarkus.assignment.service;
 
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.ClientErrorException;
 import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.Response;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
+import org.quarkus.assignment.cache.CatalogSnapshotCache;
+import org.quarkus.assignment.cache.ProductCache;
+import org.quarkus.assignment.dto.AvailabilityResponse;
+import org.quarkus.assignment.dto.BatchAvailabilityResponse;
+import org.quarkus.assignment.dto.CacheStatsResponse;
+import org.quarkus.assignment.dto.ProductCountRequest;
+import org.quarkus.assignment.dto.ReservationResponse;
+import org.quarkus.assignment.dto.SearchResponse;
 import org.quarkus.assignment.dto.SummaryDto;
+import org.quarkus.assignment.inventory.InventoryLedger;
+import org.quarkus.assignment.mapper.ProductMapper;
 import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.ProductFilter;
 import org.quarkus.assignment.model.SortOrder;
 import org.quarkus.assignment.persistence.ProductRepository;
+import org.quarkus.assignment.search.ProductSearchIndex;
+import org.quarkus.assignment.storage.ProductBatchLoader;
+import org.quarkus.assignment.storage.ProductStore;
 
-import io.quarkus.panache.common.Sort;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -23,87 +52,352 @@ public class ProductService {
     @Inject
     ProductRepository repository;
 
+    @Inject
+    ProductStore store;
+
+    @Inject
+    ProductBatchLoader loader;
+
+    @Inject
+    ProductCache cache;
+
+    @Inject
+    InventoryLedger ledger;
+
+    @Inject
+    CatalogSnapshotCache snapshots;
+
+    @Inject
+    ProductSearchIndex searchIndex;
+
+    @ConfigProperty(name = "app.products.insert.batch-size", defaultValue = "1000")
+    int insertBatchSize;
+
+    @ConfigProperty(name = "app.products.insert.concurrency", defaultValue = "4")
+    int insertConcurrency;
+
+    @ConfigProperty(name = "app.products.raw-reads.enabled", defaultValue = "false")
+    boolean rawReads;
+
     public Uni<List<Product>> getAllProducts() {
-        return repository.listAll();
+        return store.listAll();
+    }
+
+    public Uni<List<Product>> getProductsAfter(Long after, int limit) {
+        return store.listAfter(after, limit);
+    }
+
+    public Uni<List<Product>> getAllProducts(Set<String> fields) {
+        if (!store.supportsQueries()) {
+            return unsupported("Sparse fieldsets");
+        }
+        return repository.findProjected(new Document(), null, null, fields);
+    }
+
+    public Uni<List<Product>> getProductsAfter(Long after, int limit, Set<String> fields) {
+        if (!store.supportsQueries()) {
+            return unsupported("Sparse fieldsets");
+        }
+        return repository.findProjected(after == null ? new Document() : Filters.gt("_id", after), Sorts.ascending("_id"), limit, fields);
+    }
+
+    /**
+     * Tells whether full-product reads may be served as raw BSON transcoded to JSON ({@code RawProductJson}).
+     * @return true when enabled and Mongo is the storage backend
+     */
+    public boolean isRawReadsEnabled() {
+        return rawReads && store.supportsQueries();
+    }
+
+    public Uni<List<RawBsonDocument>> getAllProductsRaw() {
+        return repository.findRaw(new Document(), null, null);
+    }
+
+    public Uni<List<RawBsonDocument>> getProductsAfterRaw(Long after, int limit) {
+        return repository.findRaw(after == null ? new Document() : Filters.gt("_id", after), Sorts.ascending("_id"), limit);
+    }
+
+    /**
+     * Reads one product as raw BSON. The near cache is neither consulted nor filled; see {@link #peekCachedProduct}.
+     * @param id product id
+     * @return Uni emitting the stored document, or null when absent
+     */
+    public Uni<RawBsonDocument> getProductByIdRaw(long id) {
+        return repository.findRaw(Filters.eq("_id", id), null, 1)
+            .onItem().transform(found -> found.isEmpty() ? null : found.get(0));
+    }
+
+    public Uni<List<RawBsonDocument>> getAllSortedByPriceRaw(SortOrder order) {
+        return repository.findRaw(new Document(), priceSort(order), null);
+    }
+
+    public Product peekCachedProduct(long id) {
+        return cache.peek(id);
+    }
+
+    public Uni<List<Product>> filterProducts(ProductFilter filter) {
+        if (!store.supportsQueries()) {
+            return unsupported("Filtering");
+        }
+        return repository.findFiltered(filter);
+    }
+
+    public Multi<Product> streamAllProducts() {
+        return store.streamAll();
     }
 
     public Uni<Product> getProductById(long id) {
-        return repository.findById(id);
+        return cache.get(id, loader::load);
+    }
+
+    public Uni<Product> getProductById(long id, Set<String> fields) {
+        if (!store.supportsQueries()) {
+            return unsupported("Sparse fieldsets");
+        }
+        // A cached full product beats any projected read; a miss is read projected and not cached
+        Product cached = cache.peek(id);
+        if (cached != null) {
+            return Uni.createFrom().item(cached);
+        }
+        return repository.findProjected(Filters.eq("_id", id), null, 1, fields)
+            .onItem().transform(found -> found.isEmpty() ? null : found.get(0));
     }
 
     public Uni<Product> getRequiredProductById(long id) {
-        return repository.findById(id).onItem().ifNull().failWith(NotFoundException::new);
+        return getProductById(id).onItem().ifNull().failWith(NotFoundException::new);
+    }
+
+    public Uni<List<Product>> getProductsByIds(Collection<Long> ids) {
+        return store.findByIds(ids);
     }
 
     public Uni<SummaryDto> createProducts(List<Product> products) {
         Set<Long> ids = products.stream().map(Product::getId).collect(Collectors.toSet());
-        return repository.find("_id in ?1", ids).list().onItem().transformToUni(existing -> {
-            Set<Long> existingIds = existing.stream().map(Product::getId).collect(Collectors.toSet());
-            List<Product> onlyNew = products.stream().filter(p -> !existingIds.contains(p.getId())).collect(Collectors.toList());
-            int created = onlyNew.size();
-            int duplicates = products.size() - created;
-            if (onlyNew.isEmpty()) {
-                return Uni.createFrom().item(SummaryDto.builder().created(0).duplicates(duplicates).updated(0).total(products.size()).build());
-            }
-            return repository.persist(onlyNew)
-                .replaceWith(SummaryDto.builder().created(created).duplicates(duplicates).updated(0).total(products.size()).build());
-        });
+        List<List<Product>> batches = new ArrayList<>();
+        for (int from = 0; from < products.size(); from += insertBatchSize) {
+            batches.add(products.subList(from, Math.min(from + insertBatchSize, products.size())));
+        }
+        return Multi.createFrom().iterable(batches)
+            .onItem().transformToUni(batch -> store.insertUnordered(batch).call(duplicates -> {
+                if (duplicates == 0) {
+                    searchIndex.putAll(batch);
+                    return Uni.createFrom().voidItem();
+                }
+                // Rejected duplicates keep their stored text, so index whatever is actually stored
+                return searchIndex.refresh(batch.stream().map(Product::getId).collect(Collectors.toList()));
+            })).merge(insertConcurrency)
+            .collect().with(Collectors.summingInt(Integer::intValue))
+            .onItem().transform(duplicates -> SummaryDto.builder()
+                .created(products.size() - duplicates)
+                .duplicates(duplicates)
+                .updated(0)
+                .total(products.size())
+                .build())
+            .onTermination().invoke(() -> {
+                cache.invalidateAll(ids);
+                snapshots.invalidate();
+            });
     }
 
     public Uni<SummaryDto> updateProducts(List<Product> products) {
         Set<Long> ids = products.stream().map(Product::getId).collect(Collectors.toSet());
-        return repository.find("_id in ?1", ids).list().onItem().transformToUni(existing -> {
-            Set<Long> existingIds = existing.stream().map(Product::getId).collect(Collectors.toSet());
-            int updated = (int) products.stream().filter(p -> existingIds.contains(p.getId())).count();
-            int created = products.size() - updated;
-            return repository.persistOrUpdate(products)
-                .replaceWith(SummaryDto.builder().created(created).updated(updated).duplicates(0).total(products.size()).build());
-        });
+        return store.replaceAll(products)
+            .invoke(() -> searchIndex.putAll(products))
+            .onItem().transform(updated -> SummaryDto.builder()
+                .created(products.size() - updated)
+                .updated(updated)
+                .duplicates(0)
+                .total(products.size())
+                .build())
+            .onTermination().invoke(() -> invalidate(ids));
     }
 
     public Uni<SummaryDto> patchProducts(List<Product> products) {
         Set<Long> ids = products.stream().map(Product::getId).collect(Collectors.toSet());
-        return repository.find("_id in ?1", ids).list().onItem().transformToUni(existing -> {
-            // Merge existing fields where present
-            java.util.Map<Long, Product> idToExisting = existing.stream().collect(Collectors.toMap(Product::getId, p -> p));
-            int updated = 0;
-            int created = 0;
-            for (Product patch : products) {
-                Product ex = idToExisting.get(patch.getId());
-                if (ex != null) {
-                    if (patch.getName() != null) ex.setName(patch.getName());
-                    if (patch.getDescription() != null) ex.setDescription(patch.getDescription());
-                    if (patch.getPrice() != null) ex.setPrice(patch.getPrice());
-                    if (patch.getQuantity() != null) ex.setQuantity(patch.getQuantity());
-                    updated++;
-                } else {
-                    idToExisting.put(patch.getId(), patch);
-                    created++;
+        return store.upsertFields(products)
+            .invoke(() -> searchIndex.patchAll(products))
+            .onItem().transform(result -> SummaryDto.builder()
+                .created(result.getCreated())
+                .updated(result.getUpdated())
+                .duplicates(0)
+                .total(products.size())
+                .build())
+            .onTermination().invoke(() -> invalidate(ids));
+    }
+
+    public Uni<Product> patchIfVersion(Product patch, long expectedVersion) {
+        if (!store.supportsQueries()) {
+            return unsupported("Conditional updates");
+        }
+        long id = patch.getId();
+        return repository.updateIfVersion(patch, expectedVersion)
+            .onTermination().invoke(() -> invalidate(Set.of(id)))
+            .onItem().ifNull().switchTo(() -> repository.findById(id).onItem().transform(existing -> {
+                if (existing == null) {
+                    throw new NotFoundException("Product id " + id + " doesn't exist");
                 }
-            }
-            List<Product> toPersist = idToExisting.values().stream().collect(Collectors.toList());
-            return repository.persistOrUpdate(toPersist)
-                .replaceWith(SummaryDto.builder().created(created).updated(updated).duplicates(0).total(products.size()).build());
-        });
+                throw new ClientErrorException("Product id " + id + " was modified concurrently", Response.Status.PRECONDITION_FAILED);
+            }))
+            .onItem().invoke(updated -> searchIndex.putAll(List.of(updated)));
+    }
+
+    public Uni<Product> patchIfPresent(Product patch) {
+        if (!store.supportsQueries()) {
+            return unsupported("Conditional updates");
+        }
+        long id = patch.getId();
+        return repository.updateIfPresent(patch)
+            .onTermination().invoke(() -> invalidate(Set.of(id)))
+            .onItem().ifNull().failWith(() -> new ClientErrorException("Product id " + id + " doesn't exist", Response.Status.PRECONDITION_FAILED))
+            .onItem().invoke(updated -> searchIndex.putAll(List.of(updated)));
     }
 
     public Uni<Void> deleteByIdOrThrow(long id) {
-        return repository.deleteById(id).onItem().transformToUni(deleted -> {
-            if (Boolean.TRUE.equals(deleted)) return Uni.createFrom().voidItem();
-            return Uni.createFrom().failure(new NotFoundException("Requested id not found for deletion"));
-        });
+        return store.deleteById(id).onTermination().invoke(() -> invalidate(Set.of(id)))
+            .onItem().transformToUni(deleted -> {
+                if (Boolean.TRUE.equals(deleted)) {
+                    searchIndex.removeAll(List.of(id));
+                    return Uni.createFrom().voidItem();
+                }
+                return Uni.createFrom().failure(new NotFoundException("Requested id not found for deletion"));
+            });
     }
 
     public Uni<Boolean> isAvailable(long id, int count) {
-        return getRequiredProductById(id).onItem().transform(p -> p.getQuantity() != null && p.getQuantity() >= count);
+        return getAvailableQuantity(id).onItem().transform(quantity -> quantity >= count);
     }
 
     public Uni<Integer> getAvailableQuantity(long id) {
+        if (ledger.isHot(id)) {
+            return ledger.available(id).onItem().transform(Long::intValue);
+        }
         return getRequiredProductById(id).onItem().transform(p -> p.getQuantity() != null ? p.getQuantity() : 0);
     }
 
+    public Uni<AvailabilityResponse> getAvailability(long id, int count) {
+        if (ledger.isHot(id)) {
+            return ledger.available(id).onItem().transform(quantity -> ProductMapper.toAvailability(id, count, quantity.intValue()));
+        }
+        return getRequiredProductById(id).onItem().transform(p -> ProductMapper.toAvailability(id, count, p));
+    }
+
+    public Uni<BatchAvailabilityResponse> getAvailability(List<ProductCountRequest> requests) {
+        Set<Long> ids = requests.stream().map(ProductCountRequest::getId).collect(Collectors.toSet());
+        List<Long> cold = ids.stream().filter(id -> !ledger.isHot(id)).collect(Collectors.toList());
+        // Hot ids are answered by the ledger, which sees reservations Mongo doesn't have yet
+        List<Uni<Map<Long, Integer>>> lookups = new ArrayList<>();
+        if (!cold.isEmpty()) {
+            lookups.add(getProductsByIds(cold).onItem().transform(found -> found.stream()
+                .collect(Collectors.toMap(Product::getId, p -> p.getQuantity() != null ? p.getQuantity() : 0))));
+        }
+        ids.stream().filter(ledger::isHot).forEach(id -> lookups.add(ledger.available(id)
+            .onItem().transform(quantity -> Map.of(id, quantity.intValue()))
+            .onFailure(NotFoundException.class).recoverWithItem(Map.of())));
+        return Uni.join().all(lookups).andFailFast().onItem().transform(found -> {
+            Map<Long, Integer> quantities = new HashMap<>();
+            found.forEach(quantities::putAll);
+            BatchAvailabilityResponse.BatchAvailabilityResponseBuilder body = BatchAvailabilityResponse.builder();
+            Set<Long> missing = new LinkedHashSet<>();
+            for (ProductCountRequest r : requests) {
+                Integer quantity = quantities.get(r.getId());
+                if (quantity == null) {
+                    missing.add(r.getId());
+                } else {
+                    body.item(ProductMapper.toAvailability(r.getId(), r.getCount(), quantity));
+                }
+            }
+            return body.missingIds(missing).build();
+        });
+    }
+
+    private Uni<Void> release(long id, int count) {
+        if (ledger.isHot(id)) {
+            return ledger.release(id, count);
+        }
+        return store.release(id, count).onTermination().invoke(() -> invalidate(id));
+    }
+
+    private void invalidate(Set<Long> ids) {
+        cache.invalidateAll(ids);
+        ledger.invalidate(ids);
+        snapshots.invalidate();
+    }
+
+    private void invalidate(long id) {
+        cache.invalidate(id);
+        snapshots.invalidate();
+    }
+
+    public Uni<SearchResponse> search(String query, int limit) {
+        if (!searchIndex.isEnabled()) {
+            return Uni.createFrom().failure(new ServiceUnavailableException("Search is disabled"));
+        }
+        ProductSearchIndex.Result result = searchIndex.search(query, limit);
+        List<Long> ids = result.getHits().stream().map(ProductSearchIndex.Hit::getId).collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Uni.createFrom().item(SearchResponse.builder().query(query).totalMatches(result.getTotalMatches()).build());
+        }
+        return getProductsByIds(ids).onItem().transform(found -> {
+            Map<Long, Product> byId = found.stream().collect(Collectors.toMap(Product::getId, p -> p));
+            SearchResponse.SearchResponseBuilder body = SearchResponse.builder().query(query).totalMatches(result.getTotalMatches());
+            // Keep ranking order; a hit deleted since it was ranked is skipped
+            ids.stream().map(byId::get).filter(Objects::nonNull).map(ProductMapper::toResponse).forEach(body::item);
+            return body.build();
+        });
+    }
+
+    public CacheStatsResponse getCacheStats() {
+        return cache.stats();
+    }
+
+    public Uni<ReservationResponse> reserve(long id, int count) {
+        if (ledger.isHot(id)) {
+            return ledger.reserve(id, count)
+                .onItem().transform(remaining -> ReservationResponse.builder().id(id).reserved(count).remainingQuantity(remaining.intValue()).build());
+        }
+        return store.reserve(id, count)
+            .onTermination().invoke(() -> invalidate(id))
+            .onItem().ifNull().switchTo(() -> store.findById(id).onItem().transform(existing -> {
+                if (existing == null) {
+                    throw new NotFoundException("Product id " + id + " doesn't exist");
+                }
+                throw new ClientErrorException("Insufficient quantity for product id " + id, Response.Status.CONFLICT);
+            }))
+            .onItem().transform(p -> ReservationResponse.builder()
+                .id(id)
+                .reserved(count)
+                .remainingQuantity(p.getQuantity() != null ? p.getQuantity() : 0)
+                .build());
+    }
+
+    public Uni<List<ReservationResponse>> reserveAll(List<ProductCountRequest> requests) {
+        // Reserve in order; on the first failure give back what was already taken (all or nothing)
+        List<ReservationResponse> taken = new ArrayList<>(requests.size());
+        return Multi.createFrom().iterable(requests)
+            .onItem().transformToUniAndConcatenate(r -> reserve(r.getId(), r.getCount()).onItem().invoke(taken::add))
+            .collect().asList()
+            .onFailure().call(() -> Multi.createFrom().iterable(taken)
+                .onItem().transformToUniAndConcatenate(t -> release(t.getId(), t.getReserved()))
+                .collect().asList()
+                .onFailure().invoke(e -> LOG.errorf(e, "Failed to release reservations %s", taken)));
+    }
+
     public Uni<List<Product>> getAllSortedByPrice(SortOrder order) {
-        Sort sort = order == SortOrder.DESC ? Sort.by("price").descending() : Sort.by("price").ascending();
-        return repository.findAll(sort).list();
+        return store.listByPrice(order);
+    }
+
+    public Uni<List<Product>> getAllSortedByPrice(SortOrder order, Set<String> fields) {
+        if (!store.supportsQueries()) {
+            return unsupported("Sparse fieldsets");
+        }
+        return repository.findProjected(new Document(), priceSort(order), null, fields);
+    }
+
+    private static Bson priceSort(SortOrder order) {
+        return order == SortOrder.DESC ? Sorts.descending("price", "_id") : Sorts.ascending("price", "_id");
+    }
+
+    private static <T> Uni<T> unsupported(String feature) {
+        return Uni.createFrom().failure(new ServiceUnavailableException(feature + " requires the mongo storage backend"));
     }
 }
@@ -0,0 +1,159 @@
+package org.quarkus.assignment.service;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import lombok.Value;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.quarkus.assignment.dto.InventoryStatsResponse;
+import org.quarkus.assignment.dto.PriceBucketResponse;
+import org.quarkus.assignment.persistence.ProductRepository;
+import org.quarkus.assignment.storage.ProductStore;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Inventory statistics computed by a Mongo aggregation ({@link ProductRepository#aggregateStats}).
+ * <p>
+ * Results are cached per threshold and histogram boundaries for {@code app.stats.ttl} (0 disables caching), so
+ * dashboards polling the endpoint cost one aggregation per TTL. Concurrent misses for the same parameters share
+ * one aggregation. Writes do not invalidate the cache; results may lag by up to the TTL. Unavailable unless Mongo
+ * is the storage backend.
+ */
+@ApplicationScoped
+public class ProductStatsService {
+
+    /** Upper bound on cached parameter combinations; beyond it results are computed but not cached. */
+    private static final int MAX_CACHED_ENTRIES = 64;
+
+    @Inject
+    ProductRepository repository;
+
+    @Inject
+    ProductStore store;
+
+    @ConfigProperty(name = "app.stats.ttl", defaultValue = "10S")
+    Duration ttl;
+
+    @ConfigProperty(name = "app.stats.low-stock-threshold", defaultValue = "10")
+    int defaultLowStockThreshold;
+
+    @ConfigProperty(name = "app.stats.price-buckets", defaultValue = "0,10,50,100,500,1000")
+    List<Double> defaultPriceBuckets;
+
+    private final Map<Key, CachedStats> cache = new ConcurrentHashMap<>();
+
+    public int getDefaultLowStockThreshold() {
+        return defaultLowStockThreshold;
+    }
+
+    public List<Double> getDefaultPriceBuckets() {
+        return defaultPriceBuckets;
+    }
+
+    /**
+     * Returns inventory statistics, from the cache when a result for the same parameters is fresh enough.
+     * @param lowStockThreshold products with a quantity below this count as low on stock
+     * @param boundaries ascending lower bounds of the price histogram buckets
+     * @return Uni emitting the statistics
+     */
+    public Uni<InventoryStatsResponse> getStats(int lowStockThreshold, List<Double> boundaries) {
+        if (!store.supportsQueries()) {
+            return Uni.createFrom().failure(new ServiceUnavailableException("Statistics require the mongo storage backend"));
+        }
+        if (ttl.isZero()) {
+            return compute(lowStockThreshold, boundaries);
+        }
+        Key key = new Key(lowStockThreshold, List.copyOf(boundaries));
+        long now = System.nanoTime();
+        CachedStats current = cache.get(key);
+        if (current == null || now - current.getComputedAtNanos() >= ttl.toNanos()) {
+            if (current == null && cache.size() >= MAX_CACHED_ENTRIES) {
+                cache.values().removeIf(entry -> now - entry.getComputedAtNanos() >= ttl.toNanos());
+                if (cache.size() >= MAX_CACHED_ENTRIES) {
+                    return compute(lowStockThreshold, boundaries);
+                }
+            }
+            current = cache.compute(key, (k, existing) -> existing != null && now - existing.getComputedAtNanos() < ttl.toNanos()
+                    ? existing
+                    : new CachedStats(compute(lowStockThreshold, boundaries).subscribeAsCompletionStage(), now));
+            CachedStats mine = current;
+            // Failures are not cached
+            mine.getStats().exceptionally(failure -> {
+                cache.remove(key, mine);
+                return null;
+            });
+        }
+        // Each subscriber gets its own stage, so a cancelling caller cannot cancel the shared aggregation
+        CompletableFuture<InventoryStatsResponse> shared = current.getStats();
+        return Uni.createFrom().completionStage(() -> shared.thenApply(Function.identity()));
+    }
+
+    private Uni<InventoryStatsResponse> compute(int lowStockThreshold, List<Double> boundaries) {
+        return repository.aggregateStats(lowStockThreshold, boundaries)
+            .onItem().transform(result -> toStats(result, lowStockThreshold, boundaries));
+    }
+
+    static InventoryStatsResponse toStats(Document result, int lowStockThreshold, List<Double> boundaries) {
+        InventoryStatsResponse.InventoryStatsResponseBuilder stats = InventoryStatsResponse.builder()
+            .lowStockThreshold(lowStockThreshold);
+        List<Document> totals = result.getList("totals", Document.class, List.of());
+        if (!totals.isEmpty()) {
+            Document t = totals.get(0);
+            stats.productCount(longValue(t, "productCount"))
+                .totalQuantity(longValue(t, "totalQuantity"))
+                .totalStockValue(t.get("totalStockValue", Number.class).doubleValue())
+                .minPrice(doubleValue(t, "minPrice"))
+                .maxPrice(doubleValue(t, "maxPrice"))
+                .avgPrice(doubleValue(t, "avgPrice"));
+        }
+        List<Document> lowStock = result.getList("lowStock", Document.class, List.of());
+        stats.lowStockCount(lowStock.isEmpty() ? 0 : longValue(lowStock.get(0), "count"));
+        for (Document bucket : result.getList("priceHistogram", Document.class, List.of())) {
+            Object id = bucket.get("_id");
+            PriceBucketResponse.PriceBucketResponseBuilder b = PriceBucketResponse.builder()
+                .count(longValue(bucket, "count"))
+                .totalQuantity(longValue(bucket, "totalQuantity"));
+            if (ProductRepository.BELOW_FIRST_BUCKET.equals(id)) {
+                b.upperBound(boundaries.get(0));
+            } else {
+                double lower = ((Number) id).doubleValue();
+                int index = boundaries.indexOf(lower);
+                b.lowerBound(lower).upperBound(index >= 0 && index + 1 < boundaries.size() ? boundaries.get(index + 1) : null);
+            }
+            stats.priceBucket(b.build());
+        }
+        return stats.build();
+    }
+
+    private static long longValue(Document document, String field) {
+        Number value = document.get(field, Number.class);
+        return value != null ? value.longValue() : 0;
+    }
+
+    private static Double doubleValue(Document document, String field) {
+        Number value = document.get(field, Number.class);
+        return value != null ? value.doubleValue() : null;
+    }
+
+    /** Parameters a cached result was computed for. */
+    @Value
+    private static class Key {
+        int lowStockThreshold;
+        List<Double> boundaries;
+    }
+
+    /** Statistics (possibly still being computed) together with the time the computation started. */
+    @Value
+    private static class CachedStats {
+        CompletableFuture<InventoryStatsResponse> stats;
+        long computedAtNanos;
+    }
+}
@@ -1,52 +1,103 @@
 package org.quarkus.assignment.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.Value;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.quarkus.assignment.thirdparty.ThirdPartyClient;
 import org.quarkus.assignment.thirdparty.UserDto;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
- * Reactive service for calling the JSONPlaceholder users API.
+ * Reactive service for the JSONPlaceholder users API, caching the results of {@link ThirdPartyClient}.
+ * <p>
+ * The users list is cached for {@code app.thirdparty.users.ttl}. Once expired it is still served for up to
+ * {@code app.thirdparty.users.stale-while-revalidate} while a background refresh runs. Concurrent misses and
+ * refreshes share a single outbound request; a caller that cancels only stops waiting for it.
  */
 @ApplicationScoped
 public class ThirdPartyService {
 
-    private static final HttpClient CLIENT = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .build();
-    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Logger LOG = Logger.getLogger(ThirdPartyService.class);
+
+    @Inject
+    ThirdPartyClient client;
+
+    @ConfigProperty(name = "app.thirdparty.users.ttl", defaultValue = "60S")
+    Duration ttl;
+
+    @ConfigProperty(name = "app.thirdparty.users.stale-while-revalidate", defaultValue = "5M")
+    Duration staleWhileRevalidate;
+
+    private final AtomicReference<CachedUsers> cached = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<List<UserDto>>> inFlight = new AtomicReference<>();
 
     /**
-     * Fetches users from the third-party endpoint.
+     * Returns users from the cache, refreshing it from the third-party endpoint when needed.
      * @return Uni emitting the list of users
      */
     public Uni<List<UserDto>> getUsers() {
-        HttpRequest req = HttpRequest.newBuilder()
-                .uri(URI.create("https://jsonplaceholder.typicode.com/users"))
-                .timeout(Duration.ofSeconds(20))
-                .GET()
-                .build();
-        return Uni.createFrom().completionStage(
-                CLIENT.sendAsync(req, HttpResponse.BodyHandlers.ofString())
-        ).onItem().transform(resp -> {
-            if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
-                try {
-                    return MAPPER.readValue(resp.body(), new TypeReference<>() {});
-                } catch (Exception e) {
-                    throw new RuntimeException("Failed to parse users response", e);
-                }
+        CachedUsers current = cached.get();
+        if (current != null) {
+            long age = System.nanoTime() - current.getFetchedAtNanos();
+            if (age < ttl.toNanos()) {
+                return Uni.createFrom().item(current.getUsers());
+            }
+            if (age < ttl.plus(staleWhileRevalidate).toNanos()) {
+                refresh().exceptionally(e -> {
+                    LOG.warnf("Background refresh of third-party users failed: %s", e.getMessage());
+                    return null;
+                });
+                return Uni.createFrom().item(current.getUsers());
             }
-            throw new RuntimeException("Failed to fetch users. Status: " + resp.statusCode());
-        });
+        }
+        // A dependent copy per subscriber: a caller that cancels must not cancel the shared fetch
+        return Uni.createFrom().completionStage(() -> refresh().thenApply(Function.identity()));
     }
-}
 
+    /**
+     * Drops the cached users, so the next call fetches them again.
+     */
+    void invalidate() {
+        cached.set(null);
+    }
 
+    /**
+     * Starts a fetch unless one is already running, in which case its result is shared.
+     * @return future completing with the fetched users
+     */
+    private CompletableFuture<List<UserDto>> refresh() {
+        while (true) {
+            CompletableFuture<List<UserDto>> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<List<UserDto>> mine = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, mine)) {
+                client.fetchUsers().subscribe().with(users -> {
+                    cached.set(new CachedUsers(users, System.nanoTime()));
+                    inFlight.compareAndSet(mine, null);
+                    mine.complete(users);
+                }, failure -> {
+                    inFlight.compareAndSet(mine, null);
+                    mine.completeExceptionally(failure);
+                });
+                return mine;
+            }
+        }
+    }
+
+    /** Users list together with the time it was fetched. */
+    @Value
+    private static class CachedUsers {
+        List<UserDto> users;
+        long fetchedAtNanos;
+    }
+}
@@ -0,0 +1,119 @@
+package org.quarkus.assignment.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Open-addressing hash map from long keys to non-negative int values, held in direct buffers so that neither the
+ * table nor lookups create garbage. Linear probing; deletes shift the following entries back instead of leaving
+ * tombstones, so probe sequences stay short under churn.
+ * <p>
+ * The table never grows: it is sized for {@code maxEntries} at half load. Not thread-safe.
+ */
+final class LongIntHashIndex {
+
+    /** Marks a free bucket in {@link #values}; stored values are offset by one. */
+    private static final int EMPTY = 0;
+
+    private final LongBuffer keys;
+    private final IntBuffer values;
+    private final int mask;
+    private final int maxEntries;
+    private int size;
+
+    LongIntHashIndex(int maxEntries) {
+        int capacity = Integer.highestOneBit(Math.max(2, maxEntries) * 2 - 1) << 1;
+        this.keys = ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        this.values = ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        this.mask = capacity - 1;
+        this.maxEntries = maxEntries;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the value stored for {@code key}, or -1
+     */
+    int get(long key) {
+        for (int i = bucket(key); ; i = (i + 1) & mask) {
+            int stored = values.get(i);
+            if (stored == EMPTY) {
+                return -1;
+            }
+            if (keys.get(i) == key) {
+                return stored - 1;
+            }
+        }
+    }
+
+    /**
+     * Stores {@code value} for {@code key}, replacing any previous value.
+     * @throws IllegalStateException when the key is new and {@code maxEntries} keys are already stored
+     */
+    void put(long key, int value) {
+        for (int i = bucket(key); ; i = (i + 1) & mask) {
+            int stored = values.get(i);
+            if (stored == EMPTY) {
+                if (size == maxEntries) {
+                    throw new IllegalStateException("Index is full (" + maxEntries + " keys)");
+                }
+                keys.put(i, key);
+                values.put(i, value + 1);
+                size++;
+                return;
+            }
+            if (keys.get(i) == key) {
+                values.put(i, value + 1);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes {@code key}.
+     * @return the value it had, or -1
+     */
+    int remove(long key) {
+        int i = bucket(key);
+        while (true) {
+            int stored = values.get(i);
+            if (stored == EMPTY) {
+                return -1;
+            }
+            if (keys.get(i) == key) {
+                break;
+            }
+            i = (i + 1) & mask;
+        }
+        int removed = values.get(i) - 1;
+        // Backward shift: pull later entries of the same cluster into the hole unless that would move them
+        // before their home bucket
+        int hole = i;
+        for (int j = (hole + 1) & mask; values.get(j) != EMPTY; j = (j + 1) & mask) {
+            int home = bucket(keys.get(j));
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys.put(hole, keys.get(j));
+                values.put(hole, values.get(j));
+                hole = j;
+            }
+        }
+        values.put(hole, EMPTY);
+        size--;
+        return removed;
+    }
+
+    private int bucket(long key) {
+        // Murmur3 finalizer: sequential ids would otherwise fill one dense run of buckets
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
@@ -0,0 +1,95 @@
+package org.quarkus.assignment.storage;
+
+import com.mongodb.bulk.BulkWriteResult;
+import io.quarkus.mongodb.panache.reactive.ReactivePanacheQuery;
+import io.quarkus.panache.common.Sort;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Inject;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.SortOrder;
+import org.quarkus.assignment.persistence.ProductRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Default backend: the products collection through {@link ProductRepository}.
+ */
+@ApplicationScoped
+@Typed(MongoProductStore.class)
+public class MongoProductStore implements ProductStore {
+
+    @Inject
+    ProductRepository repository;
+
+    @Override
+    public Uni<Product> findById(long id) {
+        return repository.findById(id);
+    }
+
+    @Override
+    public Uni<List<Product>> findByIds(Collection<Long> ids) {
+        return repository.find("_id in ?1", ids).list();
+    }
+
+    @Override
+    public Uni<List<Product>> listAll() {
+        return repository.listAll();
+    }
+
+    @Override
+    public Uni<List<Product>> listAfter(Long after, int limit) {
+        Sort sort = Sort.ascending("_id");
+        ReactivePanacheQuery<Product> query = after == null ? repository.findAll(sort) : repository.find("_id > ?1", sort, after);
+        return query.page(0, limit).list();
+    }
+
+    @Override
+    public Uni<List<Product>> listByPrice(SortOrder order) {
+        return repository.findAll(ProductRepository.byPrice(order)).list();
+    }
+
+    @Override
+    public Multi<Product> streamAll() {
+        return repository.streamAll(Sort.ascending("_id"));
+    }
+
+    @Override
+    public Uni<Integer> insertUnordered(List<Product> products) {
+        return repository.insertUnordered(products);
+    }
+
+    @Override
+    public Uni<Integer> replaceAll(List<Product> products) {
+        return repository.replaceAll(products).onItem().transform(BulkWriteResult::getMatchedCount);
+    }
+
+    @Override
+    public Uni<UpsertCounts> upsertFields(List<Product> patches) {
+        return repository.upsertFields(patches)
+            .onItem().transform(result -> new UpsertCounts(result.getUpserts().size(), result.getMatchedCount()));
+    }
+
+    @Override
+    public Uni<Product> reserve(long id, int count) {
+        return repository.reserve(id, count);
+    }
+
+    @Override
+    public Uni<Void> release(long id, int count) {
+        return repository.release(id, count);
+    }
+
+    @Override
+    public Uni<Boolean> deleteById(long id) {
+        return repository.deleteById(id);
+    }
+
+    @Override
+    public boolean supportsQueries() {
+        return true;
+    }
+}
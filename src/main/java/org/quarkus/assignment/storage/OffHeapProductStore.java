@@ -0,0 +1,517 @@
+package org.quarkus.assignment.storage;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.SortOrder;
+import org.quarkus.assignment.util.ProductETags;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Products stored outside the Java heap, in two memory-mapped files under {@code app.storage.offheap.path}:
+ * <ul>
+ *   <li>{@code records.dat}: one fixed 64-byte record per product slot (id, version, price, quantity, flags and
+ *   the location of the name and description)</li>
+ *   <li>{@code arena.dat}: the UTF-8 bytes of names and descriptions. A changed string is rewritten in place when
+ *   it is not longer than the previous one and appended otherwise; space of replaced strings is not reclaimed.</li>
+ * </ul>
+ * Ids are resolved to slots by a {@link LongIntHashIndex} in direct memory, rebuilt from the records at startup,
+ * so lookups allocate nothing but the returned product. Both files survive restarts and process crashes, since the
+ * OS writes mapped pages back on its own; {@code app.storage.offheap.sync-writes} additionally forces them to disk
+ * after every write (and moves writes off the event loop).
+ * <p>
+ * Capacity is fixed by {@code max-products} and {@code arena-size}; writes beyond either fail with
+ * {@link IllegalStateException}. There is no secondary index: price-sorted listings and keyset pages scan all
+ * records. Reads share a read lock, writes are serialized.
+ */
+@ApplicationScoped
+@Typed(OffHeapProductStore.class)
+public class OffHeapProductStore implements ProductStore {
+
+    private static final Logger LOG = Logger.getLogger(OffHeapProductStore.class);
+
+    static final String RECORDS_FILE = "records.dat";
+    static final String ARENA_FILE = "arena.dat";
+
+    private static final int RECORDS_MAGIC = 0x50524f44;
+    private static final int ARENA_MAGIC = 0x50415245;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int RECORD_BYTES = 64;
+
+    // File headers
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_FORMAT = 4;
+    /** records.dat: number of slots the file was last opened with. */
+    private static final int HEADER_CAPACITY = 8;
+    /** records.dat: slots below this have been used at least once. */
+    private static final int HEADER_HIGH_WATER = 12;
+    /** arena.dat: offset of the first free byte. */
+    private static final int HEADER_TOP = 8;
+
+    // Record fields
+    private static final int ID = 0;
+    private static final int VERSION = 8;
+    private static final int PRICE = 16;
+    private static final int QUANTITY = 24;
+    private static final int FLAGS = 28;
+    private static final int NAME_OFFSET = 32;
+    private static final int NAME_LENGTH = 36;
+    private static final int DESCRIPTION_OFFSET = 40;
+    private static final int DESCRIPTION_LENGTH = 44;
+
+    private static final int LIVE = 1;
+    private static final int HAS_PRICE = 1 << 1;
+    private static final int HAS_QUANTITY = 1 << 2;
+    private static final int HAS_NAME = 1 << 3;
+    private static final int HAS_DESCRIPTION = 1 << 4;
+
+    private static final Comparator<Product> BY_PRICE = Comparator
+            .comparing((Product p) -> p.getPrice() != null ? p.getPrice() : Double.NEGATIVE_INFINITY)
+            .thenComparing(Product::getId);
+
+    @ConfigProperty(name = "app.storage.offheap.path", defaultValue = "data/offheap")
+    Path path;
+
+    @ConfigProperty(name = "app.storage.offheap.max-products", defaultValue = "1000000")
+    int maxProducts;
+
+    @ConfigProperty(name = "app.storage.offheap.arena-size", defaultValue = "256M")
+    MemorySize arenaSize;
+
+    @ConfigProperty(name = "app.storage.offheap.sync-writes", defaultValue = "false")
+    boolean syncWrites;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private MappedByteBuffer records;
+    private MappedByteBuffer arena;
+    private LongIntHashIndex index;
+    /** Stack of slots below the high-water mark that hold no product. */
+    private int[] freeSlots;
+    private int freeCount;
+    private int capacity;
+    private int highWater;
+    private int arenaTop;
+
+    @PostConstruct
+    void init() {
+        try {
+            open(path, maxProducts, arenaSize.asLongValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open off-heap product store " + path, e);
+        }
+        LOG.infof("Off-heap product store at %s: %d products, %d of %d arena bytes used",
+                path, index.size(), arenaTop, arena.capacity());
+    }
+
+    @PreDestroy
+    void close() {
+        lock.writeLock().lock();
+        try {
+            if (records != null) {
+                records.force();
+                arena.force();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Maps (creating when missing) the store files in {@code dir} and rebuilds the id index.
+     * @param dir directory holding the files
+     * @param maxProducts slot capacity; may grow between runs but not shrink below what the files were opened with
+     * @param arenaBytes size of the string arena; may likewise only grow
+     */
+    void open(Path dir, int maxProducts, long arenaBytes) throws IOException {
+        if (maxProducts < 1 || HEADER_BYTES + (long) maxProducts * RECORD_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("max-products must be between 1 and " + (Integer.MAX_VALUE - HEADER_BYTES) / RECORD_BYTES);
+        }
+        if (arenaBytes <= HEADER_BYTES || arenaBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("arena-size must be between " + (HEADER_BYTES + 1) + " bytes and 2G");
+        }
+        Files.createDirectories(dir);
+        MappedByteBuffer recordsBuffer = map(dir.resolve(RECORDS_FILE), HEADER_BYTES + (long) maxProducts * RECORD_BYTES);
+        MappedByteBuffer arenaBuffer = map(dir.resolve(ARENA_FILE), arenaBytes);
+        if (recordsBuffer.getInt(HEADER_MAGIC) == 0) {
+            recordsBuffer.putInt(HEADER_MAGIC, RECORDS_MAGIC).putInt(HEADER_FORMAT, FORMAT_VERSION).putInt(HEADER_HIGH_WATER, 0);
+            arenaBuffer.putInt(HEADER_MAGIC, ARENA_MAGIC).putInt(HEADER_FORMAT, FORMAT_VERSION).putInt(HEADER_TOP, HEADER_BYTES);
+        } else {
+            checkHeader(recordsBuffer, RECORDS_MAGIC, RECORDS_FILE);
+            checkHeader(arenaBuffer, ARENA_MAGIC, ARENA_FILE);
+            if (recordsBuffer.getInt(HEADER_CAPACITY) > maxProducts) {
+                throw new IllegalStateException("Off-heap store in " + dir + " holds " + recordsBuffer.getInt(HEADER_CAPACITY)
+                        + " slots; max-products cannot be lowered to " + maxProducts);
+            }
+            if (arenaBuffer.getInt(HEADER_TOP) > arenaBytes) {
+                throw new IllegalStateException("Off-heap arena in " + dir + " uses " + arenaBuffer.getInt(HEADER_TOP)
+                        + " bytes; arena-size cannot be lowered to " + arenaBytes);
+            }
+        }
+        recordsBuffer.putInt(HEADER_CAPACITY, maxProducts);
+
+        records = recordsBuffer;
+        arena = arenaBuffer;
+        capacity = maxProducts;
+        highWater = records.getInt(HEADER_HIGH_WATER);
+        arenaTop = arena.getInt(HEADER_TOP);
+        index = new LongIntHashIndex(maxProducts);
+        freeSlots = new int[maxProducts];
+        freeCount = 0;
+        // Push in reverse so that the lowest free slot is reused first
+        for (int slot = highWater - 1; slot >= 0; slot--) {
+            if ((records.getInt(base(slot) + FLAGS) & LIVE) != 0) {
+                index.put(records.getLong(base(slot) + ID), slot);
+            } else {
+                freeSlots[freeCount++] = slot;
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static void checkHeader(MappedByteBuffer buffer, int magic, String file) {
+        if (buffer.getInt(HEADER_MAGIC) != magic || buffer.getInt(HEADER_FORMAT) != FORMAT_VERSION) {
+            throw new IllegalStateException(file + " is not an off-heap product store file of format " + FORMAT_VERSION);
+        }
+    }
+
+    @Override
+    public Uni<Product> findById(long id) {
+        return read(() -> {
+            int slot = index.get(id);
+            return slot < 0 ? null : decode(slot);
+        });
+    }
+
+    @Override
+    public Uni<List<Product>> findByIds(Collection<Long> ids) {
+        return read(() -> {
+            List<Product> found = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                int slot = index.get(id);
+                if (slot >= 0) {
+                    found.add(decode(slot));
+                }
+            }
+            return found;
+        });
+    }
+
+    @Override
+    public Uni<List<Product>> listAll() {
+        return read(this::sortedById);
+    }
+
+    @Override
+    public Uni<List<Product>> listAfter(Long after, int limit) {
+        return read(() -> {
+            long[] ids = new long[index.size()];
+            int count = 0;
+            for (int slot = 0; slot < highWater; slot++) {
+                int base = base(slot);
+                if ((records.getInt(base + FLAGS) & LIVE) != 0 && (after == null || records.getLong(base + ID) > after)) {
+                    ids[count++] = records.getLong(base + ID);
+                }
+            }
+            Arrays.sort(ids, 0, count);
+            List<Product> page = new ArrayList<>(Math.min(limit, count));
+            for (int i = 0; i < Math.min(limit, count); i++) {
+                page.add(decode(index.get(ids[i])));
+            }
+            return page;
+        });
+    }
+
+    @Override
+    public Uni<List<Product>> listByPrice(SortOrder order) {
+        return read(() -> {
+            List<Product> products = live();
+            products.sort(order == SortOrder.DESC ? BY_PRICE.reversed() : BY_PRICE);
+            return products;
+        });
+    }
+
+    @Override
+    public Multi<Product> streamAll() {
+        return listAll().onItem().transformToMulti(products -> Multi.createFrom().iterable(products));
+    }
+
+    @Override
+    public Uni<Integer> insertUnordered(List<Product> products) {
+        return write(() -> {
+            long version = ProductETags.firstVersion();
+            int duplicates = 0;
+            for (Product p : products) {
+                if (index.get(p.getId()) >= 0) {
+                    duplicates++;
+                    continue;
+                }
+                p.setVersion(version);
+                store(allocateSlot(), p);
+            }
+            return duplicates;
+        });
+    }
+
+    @Override
+    public Uni<Integer> replaceAll(List<Product> products) {
+        return write(() -> {
+            int updated = 0;
+            for (Product p : products) {
+                int slot = index.get(p.getId());
+                if (slot >= 0) {
+                    updated++;
+                    p.setVersion(records.getLong(base(slot) + VERSION) + 1);
+                } else {
+                    slot = allocateSlot();
+                    p.setVersion(ProductETags.firstVersion());
+                }
+                store(slot, p);
+            }
+            return updated;
+        });
+    }
+
+    @Override
+    public Uni<UpsertCounts> upsertFields(List<Product> patches) {
+        return write(() -> {
+            int created = 0;
+            int updated = 0;
+            for (Product patch : patches) {
+                int slot = index.get(patch.getId());
+                Product next;
+                if (slot >= 0) {
+                    updated++;
+                    next = decode(slot);
+                } else {
+                    created++;
+                    slot = allocateSlot();
+                    next = new Product();
+                    next.setId(patch.getId());
+                }
+                if (patch.getName() != null) {
+                    next.setName(patch.getName());
+                }
+                if (patch.getDescription() != null) {
+                    next.setDescription(patch.getDescription());
+                }
+                if (patch.getPrice() != null) {
+                    next.setPrice(patch.getPrice());
+                }
+                if (patch.getQuantity() != null) {
+                    next.setQuantity(patch.getQuantity());
+                }
+                next.setVersion(next.getVersion() != null ? next.getVersion() + 1 : ProductETags.firstVersion());
+                store(slot, next);
+            }
+            return new UpsertCounts(created, updated);
+        });
+    }
+
+    @Override
+    public Uni<Product> reserve(long id, int count) {
+        return write(() -> {
+            int slot = index.get(id);
+            if (slot < 0) {
+                return null;
+            }
+            int base = base(slot);
+            int flags = records.getInt(base + FLAGS);
+            if ((flags & HAS_QUANTITY) == 0 || records.getInt(base + QUANTITY) < count) {
+                return null;
+            }
+            records.putInt(base + QUANTITY, records.getInt(base + QUANTITY) - count);
+            records.putLong(base + VERSION, records.getLong(base + VERSION) + 1);
+            return decode(slot);
+        });
+    }
+
+    @Override
+    public Uni<Void> release(long id, int count) {
+        return write(() -> {
+            int slot = index.get(id);
+            if (slot >= 0) {
+                int base = base(slot);
+                int flags = records.getInt(base + FLAGS);
+                int quantity = (flags & HAS_QUANTITY) != 0 ? records.getInt(base + QUANTITY) : 0;
+                records.putInt(base + QUANTITY, quantity + count);
+                records.putInt(base + FLAGS, flags | HAS_QUANTITY);
+                records.putLong(base + VERSION, records.getLong(base + VERSION) + 1);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Uni<Boolean> deleteById(long id) {
+        return write(() -> {
+            int slot = index.remove(id);
+            if (slot < 0) {
+                return false;
+            }
+            records.putInt(base(slot) + FLAGS, 0);
+            freeSlots[freeCount++] = slot;
+            return true;
+        });
+    }
+
+    private <T> Uni<T> read(Supplier<T> work) {
+        return Uni.createFrom().item(() -> {
+            lock.readLock().lock();
+            try {
+                return work.get();
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    private <T> Uni<T> write(Supplier<T> work) {
+        Uni<T> uni = Uni.createFrom().item(() -> {
+            lock.writeLock().lock();
+            try {
+                T result = work.get();
+                if (syncWrites) {
+                    records.force();
+                    arena.force();
+                }
+                return result;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+        return syncWrites ? uni.runSubscriptionOn(Infrastructure.getDefaultWorkerPool()) : uni;
+    }
+
+    private List<Product> live() {
+        List<Product> products = new ArrayList<>(index.size());
+        for (int slot = 0; slot < highWater; slot++) {
+            if ((records.getInt(base(slot) + FLAGS) & LIVE) != 0) {
+                products.add(decode(slot));
+            }
+        }
+        return products;
+    }
+
+    private List<Product> sortedById() {
+        List<Product> products = live();
+        products.sort(Comparator.comparing(Product::getId));
+        return products;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == capacity) {
+            throw new IllegalStateException("Off-heap product store is full (" + capacity + " products); raise app.storage.offheap.max-products");
+        }
+        // Recorded before the slot is written, so a crash cannot leave a live record above the mark
+        records.putInt(HEADER_HIGH_WATER, ++highWater);
+        return highWater - 1;
+    }
+
+    /** Writes {@code p} (including its version) to {@code slot} and indexes it; the live flag is set last. */
+    private void store(int slot, Product p) {
+        int base = base(slot);
+        int flags = LIVE;
+        if (p.getName() != null) {
+            putString(base, NAME_OFFSET, NAME_LENGTH, p.getName());
+            flags |= HAS_NAME;
+        }
+        if (p.getDescription() != null) {
+            putString(base, DESCRIPTION_OFFSET, DESCRIPTION_LENGTH, p.getDescription());
+            flags |= HAS_DESCRIPTION;
+        }
+        if (p.getPrice() != null) {
+            records.putDouble(base + PRICE, p.getPrice());
+            flags |= HAS_PRICE;
+        }
+        if (p.getQuantity() != null) {
+            records.putInt(base + QUANTITY, p.getQuantity());
+            flags |= HAS_QUANTITY;
+        }
+        records.putLong(base + ID, p.getId());
+        records.putLong(base + VERSION, p.getVersion() != null ? p.getVersion() : 1L);
+        records.putInt(base + FLAGS, flags);
+        index.put(p.getId(), slot);
+    }
+
+    private void putString(int base, int offsetField, int lengthField, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int offset = records.getInt(base + offsetField);
+        // A reused slot may point at the string of a deleted product, which is equally free to overwrite
+        if (offset < HEADER_BYTES || bytes.length > records.getInt(base + lengthField)) {
+            if ((long) arenaTop + bytes.length > arena.capacity()) {
+                throw new IllegalStateException("Off-heap arena is full (" + arena.capacity() + " bytes); raise app.storage.offheap.arena-size");
+            }
+            offset = arenaTop;
+            arenaTop += bytes.length;
+            arena.putInt(HEADER_TOP, arenaTop);
+        }
+        arena.put(offset, bytes);
+        records.putInt(base + offsetField, offset);
+        records.putInt(base + lengthField, bytes.length);
+    }
+
+    private Product decode(int slot) {
+        int base = base(slot);
+        int flags = records.getInt(base + FLAGS);
+        Product p = new Product();
+        p.setId(records.getLong(base + ID));
+        p.setVersion(records.getLong(base + VERSION));
+        if ((flags & HAS_PRICE) != 0) {
+            p.setPrice(records.getDouble(base + PRICE));
+        }
+        if ((flags & HAS_QUANTITY) != 0) {
+            p.setQuantity(records.getInt(base + QUANTITY));
+        }
+        if ((flags & HAS_NAME) != 0) {
+            p.setName(getString(records.getInt(base + NAME_OFFSET), records.getInt(base + NAME_LENGTH)));
+        }
+        if ((flags & HAS_DESCRIPTION) != 0) {
+            p.setDescription(getString(records.getInt(base + DESCRIPTION_OFFSET), records.getInt(base + DESCRIPTION_LENGTH)));
+        }
+        return p;
+    }
+
+    private String getString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        arena.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int base(int slot) {
+        return HEADER_BYTES + slot * RECORD_BYTES;
+    }
+}
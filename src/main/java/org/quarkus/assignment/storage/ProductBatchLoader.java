@@ -0,0 +1,179 @@
+package org.quarkus.assignment.storage;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.quarkus.assignment.model.Product;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent lookups by id into batched {@link ProductStore#findByIds} queries (one {@code _id $in}
+ * round trip on Mongo), in the manner of a DataLoader.
+ * <p>
+ * The first lookup opens a batch; the batch is sent {@code app.products.batch-loader.window} later, or as soon as it
+ * holds {@code max-batch-size} distinct ids. Lookups of an id already in the open batch share its result. Each
+ * caller's Uni completes with its product (null when absent) or with the query's failure; cancelling one caller
+ * does not affect the others.
+ * <p>
+ * Publishes {@code products.batch.size} (distinct ids per query) and {@code products.batch.wait} (time each lookup
+ * waited for its batch to be sent). Off by default: every lookup then goes to {@link ProductStore#findById} alone.
+ */
+@ApplicationScoped
+public class ProductBatchLoader {
+
+    private static final Logger LOG = Logger.getLogger(ProductBatchLoader.class);
+
+    @ConfigProperty(name = "app.products.batch-loader.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "app.products.batch-loader.window", defaultValue = "1MS")
+    Duration window;
+
+    @ConfigProperty(name = "app.products.batch-loader.max-batch-size", defaultValue = "100")
+    int maxBatchSize;
+
+    @Inject
+    ProductStore store;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Object lock = new Object();
+    /** Batch collecting lookups, or null; guarded by {@link #lock}. */
+    private Batch open;
+    private ScheduledExecutorService scheduler;
+    private DistributionSummary batchSize;
+    private Timer waitTime;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("app.products.batch-loader.max-batch-size must be at least 1");
+        }
+        batchSize = DistributionSummary.builder("products.batch.size")
+                .description("Distinct product ids per batched lookup query")
+                .baseUnit("ids")
+                .register(registry);
+        waitTime = Timer.builder("products.batch.wait")
+                .description("Time a lookup by id waited for its batch to be sent")
+                .register(registry);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "product-batch-loader");
+            t.setDaemon(true);
+            return t;
+        });
+        LOG.infof("Product batch loader enabled (window %s, max batch size %d)", window, maxBatchSize);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Loads one product, batched with concurrent lookups when enabled.
+     * @param id product id
+     * @return Uni emitting the product, or null when absent
+     */
+    public Uni<Product> load(long id) {
+        if (!enabled) {
+            return store.findById(id);
+        }
+        // Lookups of the same id share one future; each caller gets its own stage so a cancel stays local
+        return Uni.createFrom().completionStage(() -> enqueue(id).thenApply(Function.identity()));
+    }
+
+    private CompletableFuture<Product> enqueue(long id) {
+        Batch full = null;
+        CompletableFuture<Product> result;
+        synchronized (lock) {
+            if (open == null) {
+                Batch batch = new Batch();
+                batch.timer = scheduler.schedule(() -> sendIfOpen(batch), window.toNanos(), TimeUnit.NANOSECONDS);
+                open = batch;
+            }
+            result = open.add(id, System.nanoTime());
+            if (open.results.size() >= maxBatchSize) {
+                full = open;
+                open = null;
+            }
+        }
+        if (full != null) {
+            full.timer.cancel(false);
+            send(full);
+        }
+        return result;
+    }
+
+    private void sendIfOpen(Batch batch) {
+        synchronized (lock) {
+            if (open != batch) {
+                // Already sent because it filled up
+                return;
+            }
+            open = null;
+        }
+        send(batch);
+    }
+
+    /** Sends a batch that is no longer reachable by new lookups, so its maps need no locking. */
+    private void send(Batch batch) {
+        long now = System.nanoTime();
+        batchSize.record(batch.results.size());
+        for (int i = 0; i < batch.lookups; i++) {
+            waitTime.record(now - batch.enqueuedAt[i], TimeUnit.NANOSECONDS);
+        }
+        Map<Long, CompletableFuture<Product>> results = batch.results;
+        store.findByIds(new ArrayList<>(results.keySet())).subscribe().with(
+                found -> {
+                    for (Product p : found) {
+                        CompletableFuture<Product> waiting = results.remove(p.getId());
+                        if (waiting != null) {
+                            waiting.complete(p);
+                        }
+                    }
+                    results.values().forEach(waiting -> waiting.complete(null));
+                },
+                failure -> results.values().forEach(waiting -> waiting.completeExceptionally(failure)));
+    }
+
+    /** Lookups gathered within one window. */
+    private static final class Batch {
+        /** One shared result per distinct id. */
+        final Map<Long, CompletableFuture<Product>> results = new HashMap<>();
+        long[] enqueuedAt = new long[16];
+        int lookups;
+        ScheduledFuture<?> timer;
+
+        CompletableFuture<Product> add(long id, long nanos) {
+            if (lookups == enqueuedAt.length) {
+                enqueuedAt = Arrays.copyOf(enqueuedAt, lookups * 2);
+            }
+            enqueuedAt[lookups++] = nanos;
+            return results.computeIfAbsent(id, key -> new CompletableFuture<>());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.quarkus.assignment.storage;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.SortOrder;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Storage backend behind {@code ProductService}, selected with {@code app.storage.backend}.
+ * <p>
+ * Covers the key-value operations every backend can serve. Query-shaped features (sparse projections, filters,
+ * aggregations, conditional updates) stay on Mongo and are only available when {@link #supportsQueries()} is true.
+ */
+public interface ProductStore {
+
+    /**
+     * Finds one product.
+     * @param id product id
+     * @return Uni emitting the product, or null when absent
+     */
+    Uni<Product> findById(long id);
+
+    /**
+     * Finds several products; ids that do not exist are skipped.
+     * @param ids product ids
+     * @return Uni emitting the products found, in no particular order
+     */
+    Uni<List<Product>> findByIds(Collection<Long> ids);
+
+    /**
+     * Lists every product.
+     * @return Uni emitting all products
+     */
+    Uni<List<Product>> listAll();
+
+    /**
+     * Reads one keyset page ordered by id.
+     * @param after only products with a greater id are returned; null starts at the beginning
+     * @param limit page size
+     * @return Uni emitting the page
+     */
+    Uni<List<Product>> listAfter(Long after, int limit);
+
+    /**
+     * Lists every product by price, with id as tie breaker; products without a price come first in ascending order.
+     * @param order sort order
+     * @return Uni emitting the sorted products
+     */
+    Uni<List<Product>> listByPrice(SortOrder order);
+
+    /**
+     * Streams every product in id order.
+     * @return Multi emitting the products
+     */
+    Multi<Product> streamAll();
+
+    /**
+     * Inserts products whose id is not taken yet; the others are left untouched. Inserted products start at
+     * {@code ProductETags.firstVersion()}, so a re-created id never reuses a version of the deleted product.
+     * @param products products to insert
+     * @return Uni emitting the number of products rejected as duplicates
+     */
+    Uni<Integer> insertUnordered(List<Product> products);
+
+    /**
+     * Stores complete products, replacing existing ones. Each product's version is set to the stored one plus 1.
+     * @param products products to store
+     * @return Uni emitting how many of them already existed
+     */
+    Uni<Integer> replaceAll(List<Product> products);
+
+    /**
+     * Applies the non-null fields of each patch, creating products that do not exist, and bumps their versions.
+     * @param patches partial products keyed by id
+     * @return Uni emitting how many products were created and updated
+     */
+    Uni<UpsertCounts> upsertFields(List<Product> patches);
+
+    /**
+     * Takes stock from a product if enough is left.
+     * @param id product id
+     * @param count units to take
+     * @return Uni emitting the updated product, or null when it is missing or has too little stock
+     */
+    Uni<Product> reserve(long id, int count);
+
+    /**
+     * Gives back stock taken by {@link #reserve}.
+     * @param id product id
+     * @param count units to give back
+     * @return Uni completing once the stock is restored
+     */
+    Uni<Void> release(long id, int count);
+
+    /**
+     * Deletes a product.
+     * @param id product id
+     * @return Uni emitting whether the product existed
+     */
+    Uni<Boolean> deleteById(long id);
+
+    /**
+     * Tells whether Mongo-only features (projections, filters, aggregations, conditional updates) can be served.
+     * @return true for the Mongo backend
+     */
+    default boolean supportsQueries() {
+        return false;
+    }
+}
@@ -0,0 +1,34 @@
+package org.quarkus.assignment.storage;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.Produces;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Exposes the backend named by {@code app.storage.backend} ({@code mongo} or {@code offheap}) as the
+ * {@link ProductStore}. Only the selected backend is instantiated.
+ */
+@ApplicationScoped
+public class ProductStoreProducer {
+
+    private static final Logger LOG = Logger.getLogger(ProductStoreProducer.class);
+
+    @ConfigProperty(name = "app.storage.backend", defaultValue = "mongo")
+    String backend;
+
+    @Produces
+    @ApplicationScoped
+    ProductStore productStore(Instance<MongoProductStore> mongo, Instance<OffHeapProductStore> offHeap) {
+        switch (backend) {
+            case "mongo":
+                return mongo.get();
+            case "offheap":
+                LOG.info("Products are stored off-heap; Mongo-only features are unavailable");
+                return offHeap.get();
+            default:
+                throw new IllegalArgumentException("Unknown app.storage.backend '" + backend + "', expected mongo or offheap");
+        }
+    }
+}
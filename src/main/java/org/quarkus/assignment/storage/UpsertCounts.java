@@ -0,0 +1,10 @@
+package org.quarkus.assignment.storage;
+
+import lombok.Value;
+
+/** Outcome of {@link ProductStore#upsertFields}. */
+@Value
+public class UpsertCounts {
+	int created;
+	int updated;
+}
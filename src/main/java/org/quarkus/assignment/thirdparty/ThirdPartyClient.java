@@ -0,0 +1,156 @@
+package org.quarkus.assignment.thirdparty;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.faulttolerance.Bulkhead;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP client for the JSONPlaceholder users API.
+ * <p>
+ * Responses are decoded straight from the body stream on a worker thread. When the first attempt has not
+ * answered within {@code app.thirdparty.hedge-delay} (set it near the observed p95), a second identical
+ * request is sent and the first successful answer wins. Each attempt, body included, must finish within
+ * {@code app.thirdparty.request-timeout}, so a fetch fails after at most the hedge delay plus that timeout.
+ * Calls are capped by a bulkhead and guarded by a circuit breaker, both tunable through MicroProfile Fault
+ * Tolerance config (e.g. {@code org.quarkus.assignment.thirdparty.ThirdPartyClient/fetchUsers/Bulkhead/value}).
+ */
+@ApplicationScoped
+public class ThirdPartyClient {
+
+    private static final Logger LOG = Logger.getLogger(ThirdPartyClient.class);
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<UserDto>> USERS = new TypeReference<>() {};
+
+    @ConfigProperty(name = "app.thirdparty.base-url", defaultValue = "https://jsonplaceholder.typicode.com")
+    String baseUrl;
+
+    @ConfigProperty(name = "app.thirdparty.request-timeout", defaultValue = "20S")
+    Duration requestTimeout;
+
+    @ConfigProperty(name = "app.thirdparty.hedge-delay", defaultValue = "500MS")
+    Duration hedgeDelay;
+
+    /**
+     * Fetches users, hedging slow attempts. Fails fast when the bulkhead is full or the breaker is open.
+     * @return Uni emitting the list of users
+     */
+    @Bulkhead(value = 10, waitingTaskQueue = 20)
+    @CircuitBreaker(requestVolumeThreshold = 20, failureRatio = 0.5, delay = 10, delayUnit = ChronoUnit.SECONDS, successThreshold = 2)
+    public Uni<List<UserDto>> fetchUsers() {
+        // Backstop for the per-attempt deadlines: cancelling the hedged result abandons both attempts
+        return Uni.createFrom().completionStage(this::hedged)
+                .ifNoItem().after(hedgeDelay.plus(requestTimeout)).fail();
+    }
+
+    private CompletableFuture<List<UserDto>> hedged() {
+        CompletableFuture<List<UserDto>> result = new CompletableFuture<>();
+        // attempts that may still succeed; the hedge slot counts until it is launched or abandoned
+        AtomicInteger pending = new AtomicInteger(hedgeDelay.isZero() ? 1 : 2);
+        Attempt primary = attempt();
+        race(primary, result, pending);
+        if (!hedgeDelay.isZero()) {
+            CompletableFuture.delayedExecutor(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+                if (result.isDone()) {
+                    settle(result, pending, null);
+                    return;
+                }
+                LOG.debugf("Users request exceeded %s, sending hedged request", hedgeDelay);
+                Attempt hedge = attempt();
+                race(hedge, result, pending);
+                result.whenComplete((users, failure) -> hedge.abandon());
+            });
+        }
+        result.whenComplete((users, failure) -> primary.abandon());
+        return result;
+    }
+
+    private static void race(Attempt attempt, CompletableFuture<List<UserDto>> result, AtomicInteger pending) {
+        attempt.users().whenComplete((users, failure) -> {
+            if (failure == null) {
+                result.complete(users);
+            } else {
+                settle(result, pending, failure);
+            }
+        });
+    }
+
+    private static void settle(CompletableFuture<List<UserDto>> result, AtomicInteger pending, Throwable failure) {
+        if (pending.decrementAndGet() == 0 && failure != null) {
+            result.completeExceptionally(failure);
+        }
+    }
+
+    private Attempt attempt() {
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/users"))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+        CompletableFuture<HttpResponse<InputStream>> exchange = CLIENT.sendAsync(req, HttpResponse.BodyHandlers.ofInputStream());
+        // The request timeout only covers the headers; the deadline also bounds a body that trickles in
+        CompletableFuture<List<UserDto>> users = exchange
+                .thenApplyAsync(ThirdPartyClient::decode, Infrastructure.getDefaultWorkerPool())
+                .orTimeout(requestTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        Attempt attempt = new Attempt(exchange, users);
+        users.whenComplete((decoded, failure) -> {
+            if (failure != null) {
+                attempt.abandon();
+            }
+        });
+        return attempt;
+    }
+
+    private static List<UserDto> decode(HttpResponse<InputStream> resp) {
+        try (InputStream body = resp.body()) {
+            if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
+                return MAPPER.readValue(body, USERS);
+            }
+            throw new RuntimeException("Failed to fetch users. Status: " + resp.statusCode());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse users response", e);
+        }
+    }
+
+    /** One outbound request: the exchange, which can be aborted, and the users decoded from its body. */
+    private record Attempt(CompletableFuture<HttpResponse<InputStream>> exchange, CompletableFuture<List<UserDto>> users) {
+
+        /** Stops the request once the race is decided; a no-op for the attempt that won. */
+        void abandon() {
+            if (exchange.cancel(true)) {
+                return;
+            }
+            // Headers already arrived: closing the body stops the download and fails a decode still reading it
+            exchange.thenAccept(resp -> {
+                try {
+                    resp.body().close();
+                } catch (IOException e) {
+                    LOG.debugf("Closing an abandoned users response failed: %s", e.getMessage());
+                }
+            });
+        }
+    }
+}
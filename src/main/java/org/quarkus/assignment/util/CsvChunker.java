@@ -0,0 +1,77 @@
+package org.quarkus.assignment.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a file into line-aligned byte ranges that can be mapped and parsed independently.
+ */
+@UtilityClass
+public class CsvChunker {
+
+	private static final int SCAN_BUFFER_SIZE = 8192;
+
+	/**
+	 * Computes chunk boundaries of roughly {@code chunkSize} bytes, each ending right after a newline.
+	 * @param channel open file channel
+	 * @param chunkSize target chunk size in bytes (at most {@link Integer#MAX_VALUE})
+	 * @return ordered list of {@code [start, end)} offsets covering the whole file
+	 * @throws IOException when the file can't be read
+	 */
+	public static List<long[]> split(FileChannel channel, long chunkSize) throws IOException {
+		if (chunkSize <= 0 || chunkSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("chunkSize must be between 1 and " + Integer.MAX_VALUE);
+		}
+		long size = channel.size();
+		List<long[]> chunks = new ArrayList<>();
+		long start = 0;
+		while (start < size) {
+			long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize, size);
+			chunks.add(new long[] {start, end});
+			start = end;
+		}
+		return chunks;
+	}
+
+	/**
+	 * Reads the first line of the file.
+	 * @param channel open file channel
+	 * @return first line without its terminator, empty for an empty file
+	 * @throws IOException when the file can't be read
+	 */
+	public static String firstLine(FileChannel channel) throws IOException {
+		long end = nextLineStart(channel, 0, channel.size());
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(end, Integer.MAX_VALUE));
+		channel.read(buffer, 0);
+		int length = buffer.position();
+		while (length > 0 && (buffer.get(length - 1) == '\n' || buffer.get(length - 1) == '\r')) {
+			length--;
+		}
+		return new String(buffer.array(), 0, length, StandardCharsets.UTF_8);
+	}
+
+	private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		long position = from;
+		while (position < size) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+}
@@ -0,0 +1,227 @@
+package org.quarkus.assignment.util;
+
+import lombok.Getter;
+import org.quarkus.assignment.dto.CsvRowError;
+import org.quarkus.assignment.model.Product;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses product rows from a line-aligned region of a CSV file.
+ * <p>
+ * Columns are resolved once from the header ({@code id,name,description,price,quantity} in any order);
+ * without a header that order is assumed. Fields may be double-quoted with {@code ""} as an escaped quote,
+ * but a quoted field must not span lines. Instances are immutable and safe to share between threads.
+ */
+public class CsvProductParser {
+
+	private static final byte LF = '\n';
+	private static final byte CR = '\r';
+	private static final byte QUOTE = '"';
+	private static final byte COMMA = ',';
+
+	private final int idCol;
+	private final int nameCol;
+	private final int descriptionCol;
+	private final int priceCol;
+	private final int quantityCol;
+
+	private CsvProductParser(int idCol, int nameCol, int descriptionCol, int priceCol, int quantityCol) {
+		this.idCol = idCol;
+		this.nameCol = nameCol;
+		this.descriptionCol = descriptionCol;
+		this.priceCol = priceCol;
+		this.quantityCol = quantityCol;
+	}
+
+	/**
+	 * Creates a parser for the given first line of the file.
+	 * @param firstLine first line of the file, without line terminator
+	 * @return parser bound to the header columns, or to the default order when the line is data
+	 */
+	public static CsvProductParser forFirstLine(String firstLine) {
+		List<String> fields = splitLine(firstLine);
+		if (!isHeader(fields)) {
+			return new CsvProductParser(0, 1, 2, 3, 4);
+		}
+		List<String> names = fields.stream().map(f -> f.trim().toLowerCase(Locale.ROOT)).toList();
+		int id = names.indexOf("id");
+		int name = names.indexOf("name");
+		int price = names.indexOf("price");
+		int quantity = names.indexOf("quantity");
+		if (id < 0 || name < 0 || price < 0 || quantity < 0) {
+			throw new IllegalArgumentException("CSV header requires columns [id, name, price, quantity], got " + names);
+		}
+		return new CsvProductParser(id, name, names.indexOf("description"), price, quantity);
+	}
+
+	/**
+	 * Tells whether the first line is a header rather than a data row.
+	 * @param firstLine first line of the file, without line terminator
+	 * @return true when the first field is not a number
+	 */
+	public static boolean isHeader(String firstLine) {
+		return isHeader(splitLine(firstLine));
+	}
+
+	private static List<String> splitLine(String line) {
+		byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+		return splitLine(bytes, bytes.length);
+	}
+
+	private static boolean isHeader(List<String> fields) {
+		if (fields.isEmpty()) {
+			return false;
+		}
+		try {
+			Long.parseLong(fields.get(0).trim());
+			return false;
+		} catch (NumberFormatException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Parses every line of the buffer between its position and limit.
+	 * @param buffer line-aligned region of the file
+	 * @param skipFirstLine whether the first line is the header
+	 * @return parsed products, row errors (with 1-based line numbers relative to the region) and line count
+	 */
+	public Result parse(ByteBuffer buffer, boolean skipFirstLine) {
+		Result result = new Result();
+		byte[] line = new byte[256];
+		int length = 0;
+		long lineNo = 0;
+		boolean skip = skipFirstLine;
+		int end = buffer.limit();
+		for (int i = buffer.position(); i <= end; i++) {
+			boolean eol = i == end || buffer.get(i) == LF;
+			if (!eol) {
+				if (length == line.length) {
+					line = Arrays.copyOf(line, line.length * 2);
+				}
+				line[length++] = buffer.get(i);
+				continue;
+			}
+			if (i == end && length == 0) {
+				break;
+			}
+			lineNo++;
+			if (length > 0 && line[length - 1] == CR) {
+				length--;
+			}
+			if (skip) {
+				skip = false;
+			} else if (length > 0) {
+				parseRow(line, length, lineNo, result);
+			}
+			length = 0;
+		}
+		result.lines = lineNo;
+		return result;
+	}
+
+	private void parseRow(byte[] line, int length, long lineNo, Result result) {
+		List<String> fields;
+		try {
+			fields = splitLine(line, length);
+		} catch (IllegalArgumentException e) {
+			result.errors.add(CsvRowError.builder().line(lineNo).message(e.getMessage()).build());
+			return;
+		}
+		try {
+			Product p = new Product();
+			p.setId(parseLong(field(fields, idCol)));
+			p.setName(field(fields, nameCol));
+			p.setDescription(field(fields, descriptionCol));
+			p.setPrice(parseDouble(field(fields, priceCol)));
+			p.setQuantity(parseInt(field(fields, quantityCol)));
+			if (!ProductValidation.isValidForCreate(p)) {
+				result.errors.add(CsvRowError.builder().line(lineNo).message(ProductValidation.REQUIRED_FIELDS_MESSAGE).build());
+				return;
+			}
+			result.products.add(p);
+		} catch (NumberFormatException e) {
+			result.errors.add(CsvRowError.builder().line(lineNo).message("Invalid number: " + e.getMessage()).build());
+		}
+	}
+
+	private static String field(List<String> fields, int col) {
+		if (col < 0 || col >= fields.size()) {
+			return null;
+		}
+		String value = fields.get(col);
+		return value.isEmpty() ? null : value;
+	}
+
+	private static Long parseLong(String s) {
+		return s == null ? null : Long.valueOf(s.trim());
+	}
+
+	private static Double parseDouble(String s) {
+		return s == null ? null : Double.valueOf(s.trim());
+	}
+
+	private static Integer parseInt(String s) {
+		return s == null ? null : Integer.valueOf(s.trim());
+	}
+
+	/**
+	 * Splits one CSV line into fields, honouring double quotes.
+	 * @param line bytes of the line
+	 * @param length number of valid bytes
+	 * @return decoded fields
+	 */
+	static List<String> splitLine(byte[] line, int length) {
+		List<String> fields = new ArrayList<>(5);
+		int i = 0;
+		while (i <= length) {
+			if (i < length && line[i] == QUOTE) {
+				ByteArrayOutputStream value = new ByteArrayOutputStream();
+				i++;
+				while (true) {
+					if (i >= length) {
+						throw new IllegalArgumentException("Unterminated quoted field");
+					}
+					if (line[i] == QUOTE) {
+						if (i + 1 < length && line[i + 1] == QUOTE) {
+							value.write(QUOTE);
+							i += 2;
+							continue;
+						}
+						i++;
+						break;
+					}
+					value.write(line[i++]);
+				}
+				if (i < length && line[i] != COMMA) {
+					throw new IllegalArgumentException("Unexpected character after quoted field");
+				}
+				fields.add(value.toString(StandardCharsets.UTF_8));
+				i++;
+			} else {
+				int start = i;
+				while (i < length && line[i] != COMMA) {
+					i++;
+				}
+				fields.add(new String(line, start, i - start, StandardCharsets.UTF_8));
+				i++;
+			}
+		}
+		return fields;
+	}
+
+	/** Outcome of parsing one region. */
+	@Getter
+	public static final class Result {
+		private final List<Product> products = new ArrayList<>();
+		private final List<CsvRowError> errors = new ArrayList<>();
+		private long lines;
+	}
+}
@@ -0,0 +1,52 @@
+package org.quarkus.assignment.util;
+
+import jakarta.ws.rs.BadRequestException;
+import lombok.experimental.UtilityClass;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.ProductFilter;
+import org.quarkus.assignment.model.ProductSortField;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursors of the filter endpoint: the sort key and id of the last product of a page.
+ */
+@UtilityClass
+public class FilterCursor {
+
+	/**
+	 * Encodes the position after a product.
+	 * @param sortBy sort field of the page
+	 * @param last last product of the page
+	 * @return URL-safe cursor
+	 */
+	public static String encode(ProductSortField sortBy, Product last) {
+		String position = sortBy == ProductSortField.PRICE ? last.getPrice() + ":" + last.getId() : String.valueOf(last.getId());
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Sets the position encoded in a cursor on a filter.
+	 * @param cursor cursor from a previous page
+	 * @param sortBy sort field of the request, which must match the cursor's
+	 * @param filter filter being built
+	 * @return the same builder
+	 * @throws BadRequestException when the cursor is malformed
+	 */
+	public static ProductFilter.ProductFilterBuilder apply(String cursor, ProductSortField sortBy, ProductFilter.ProductFilterBuilder filter) {
+		try {
+			String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separator = position.indexOf(':');
+			if ((sortBy == ProductSortField.PRICE) != (separator >= 0)) {
+				throw new BadRequestException("Cursor does not belong to a query sorted by " + sortBy);
+			}
+			if (separator >= 0) {
+				filter.afterPrice(Double.valueOf(position.substring(0, separator)));
+			}
+			return filter.afterId(Long.valueOf(position.substring(separator + 1)));
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Malformed cursor");
+		}
+	}
+}
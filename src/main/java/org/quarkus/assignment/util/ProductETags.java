@@ -0,0 +1,111 @@
+package org.quarkus.assignment.util;
+
+import jakarta.ws.rs.core.EntityTag;
+import lombok.experimental.UtilityClass;
+import org.quarkus.assignment.model.Product;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entity tags derived from product versions, so that conditional requests never need the body serialized.
+ */
+@UtilityClass
+public class ProductETags {
+
+	/** If-Match value that matches any current representation. */
+	public static final String ANY = "*";
+
+	/** Initial value of a list hash. */
+	public static final long LIST_SEED = 1125899906842597L;
+
+	/** Room left between the first versions of products created a millisecond apart. */
+	private static final long VERSIONS_PER_MILLI = 1000;
+
+	private static final AtomicLong LAST_FIRST_VERSION = new AtomicLong();
+
+	/**
+	 * First version of a newly created product, derived from the clock and increasing on every call.
+	 * A product re-created after a delete therefore starts above the versions its predecessor reached (unless
+	 * that one averaged a thousand writes per millisecond), so a tag issued for the old product never matches.
+	 * @return initial version
+	 */
+	public static long firstVersion() {
+		long now = System.currentTimeMillis() * VERSIONS_PER_MILLI;
+		return LAST_FIRST_VERSION.accumulateAndGet(now, (last, candidate) -> Math.max(last + VERSIONS_PER_MILLI, candidate));
+	}
+
+	/**
+	 * Tags a single product with its version; products written before versioning count as version 0.
+	 * @param p product to tag
+	 * @return strong entity tag holding the version
+	 */
+	public static EntityTag of(Product p) {
+		return ofVersion(versionOf(p));
+	}
+
+	/**
+	 * Tags a single product by version alone, for callers that never hold a {@link Product}.
+	 * @param version product version (0 when unversioned)
+	 * @return strong entity tag holding the version
+	 */
+	public static EntityTag ofVersion(long version) {
+		return new EntityTag(Long.toString(version));
+	}
+
+	/**
+	 * Tags an ordered list of products by hashing each id and version in turn.
+	 * Any write, insert, delete or reordering changes the tag.
+	 * @param products products in response order
+	 * @return strong entity tag for the list
+	 */
+	public static EntityTag of(List<Product> products) {
+		long hash = LIST_SEED;
+		for (Product p : products) {
+			hash = mix(hash, p.getId() != null ? p.getId() : 0L, versionOf(p));
+		}
+		return ofList(products.size(), hash);
+	}
+
+	/**
+	 * Folds one product into a list hash started at {@link #LIST_SEED}, for callers that never hold {@link Product}s.
+	 * @param hash hash of the preceding products
+	 * @param id product id
+	 * @param version product version (0 when unversioned)
+	 * @return the updated hash
+	 */
+	public static long mix(long hash, long id, long version) {
+		return 31 * (31 * hash + id) + version;
+	}
+
+	/**
+	 * Builds a list tag from a hash accumulated with {@link #mix}.
+	 * @param size number of products in the list
+	 * @param hash accumulated hash
+	 * @return strong entity tag for the list
+	 */
+	public static EntityTag ofList(int size, long hash) {
+		return new EntityTag(size + "-" + Long.toHexString(hash));
+	}
+
+	/**
+	 * Reads the version a client expects from an If-Match header value.
+	 * @param ifMatch header value, e.g. {@code "3"}
+	 * @return the version, or -1 when the value cannot be a tag issued by {@link #of(Product)}
+	 */
+	public static long parseVersion(String ifMatch) {
+		String value = ifMatch.trim();
+		if (value.length() < 2 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"') {
+			return -1;
+		}
+		try {
+			return Long.parseLong(value.substring(1, value.length() - 1));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static long versionOf(Product p) {
+		return p.getVersion() != null ? p.getVersion() : 0L;
+	}
+}
@@ -0,0 +1,52 @@
+package org.quarkus.assignment.util;
+
+import jakarta.ws.rs.BadRequestException;
+import lombok.experimental.UtilityClass;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse fieldsets ({@code ?fields=id,name,price}) of the product read endpoints.
+ */
+@UtilityClass
+public class ProductFields {
+
+	/** Response field names mapped to their stored document field names. */
+	public static final Map<String, String> STORED_NAMES = storedNames();
+
+	/**
+	 * Parses a comma-separated field list.
+	 * @param fields query parameter value, may be null
+	 * @return requested fields in request order, or null when every field is wanted
+	 * @throws BadRequestException when a field is unknown
+	 */
+	public static Set<String> parse(String fields) {
+		if (fields == null || fields.isBlank()) {
+			return null;
+		}
+		Set<String> requested = new LinkedHashSet<>();
+		for (String field : fields.split(",")) {
+			String name = field.trim();
+			if (!STORED_NAMES.containsKey(name)) {
+				throw new BadRequestException("Unknown field '" + name + "'; allowed fields are " + STORED_NAMES.keySet());
+			}
+			requested.add(name);
+		}
+		return requested;
+	}
+
+	private static Map<String, String> storedNames() {
+		Map<String, String> names = new LinkedHashMap<>();
+		names.put("id", "_id");
+		names.put("name", "name");
+		names.put("description", "description");
+		names.put("price", "price");
+		names.put("quantity", "quantity");
+		names.put("version", "version");
+		return Collections.unmodifiableMap(names);
+	}
+}
@@ -0,0 +1,23 @@
+package org.quarkus.assignment.util;
+
+import lombok.experimental.UtilityClass;
+import org.quarkus.assignment.model.Product;
+
+/**
+ * Validation rules shared by the product write endpoints.
+ */
+@UtilityClass
+public class ProductValidation {
+
+	/** Error message for products missing a required field. */
+	public static final String REQUIRED_FIELDS_MESSAGE = "Each product requires field(s) [id, name, price, quantity]";
+
+	/**
+	 * Checks that a product carries every field required for creation.
+	 * @param p product to check, may be null
+	 * @return true when id (non-zero), name, price and quantity are present
+	 */
+	public static boolean isValidForCreate(Product p) {
+		return p != null && p.getId() != null && p.getId() != 0 && p.getName() != null && p.getPrice() != null && p.getQuantity() != null;
+	}
+}
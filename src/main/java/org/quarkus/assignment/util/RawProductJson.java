@@ -0,0 +1,342 @@
+package org.quarkus.assignment.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.buffer.impl.BufferImpl;
+import jakarta.ws.rs.core.EntityTag;
+import lombok.Value;
+import lombok.experimental.UtilityClass;
+import org.bson.RawBsonDocument;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Transcodes raw BSON product documents straight into JSON bytes, with no {@code Product} or
+ * {@code ProductResponse} in between.
+ * <p>
+ * The output is byte-for-byte what Jackson writes for the {@code ProductResponse} of the same document: the six
+ * product fields in declaration order, {@code _id} renamed to {@code id}, missing fields as null, numbers widened
+ * or narrowed as the POJO codec would, and strings copied as UTF-8 with only quotes, backslashes and control
+ * characters escaped. Other stored fields are skipped. ETags are computed in the same pass with {@link ProductETags}.
+ */
+@UtilityClass
+public class RawProductJson {
+
+	// BSON element types
+	private static final byte DOUBLE = 0x01;
+	private static final byte STRING = 0x02;
+	private static final byte DOCUMENT = 0x03;
+	private static final byte ARRAY = 0x04;
+	private static final byte BINARY = 0x05;
+	private static final byte UNDEFINED = 0x06;
+	private static final byte OBJECT_ID = 0x07;
+	private static final byte BOOLEAN = 0x08;
+	private static final byte DATE_TIME = 0x09;
+	private static final byte NULL = 0x0A;
+	private static final byte REGEX = 0x0B;
+	private static final byte DB_POINTER = 0x0C;
+	private static final byte JAVASCRIPT = 0x0D;
+	private static final byte SYMBOL = 0x0E;
+	private static final byte JAVASCRIPT_WITH_SCOPE = 0x0F;
+	private static final byte INT32 = 0x10;
+	private static final byte TIMESTAMP = 0x11;
+	private static final byte INT64 = 0x12;
+	private static final byte DECIMAL128 = 0x13;
+	private static final byte MIN_KEY = (byte) 0xFF;
+	private static final byte MAX_KEY = 0x7F;
+
+	// Product fields in ProductResponse order
+	private static final int ID = 0;
+	private static final int NAME = 1;
+	private static final int DESCRIPTION = 2;
+	private static final int PRICE = 3;
+	private static final int QUANTITY = 4;
+	private static final int VERSION = 5;
+	private static final byte[][] STORED_NAMES = ascii("_id", "name", "description", "price", "quantity", "version");
+	private static final byte[][] JSON_KEYS = ascii("{\"id\":", ",\"name\":", ",\"description\":", ",\"price\":", ",\"quantity\":", ",\"version\":");
+	private static final byte[] JSON_NULL = ascii("null")[0];
+	private static final byte[] PAGE_START = ascii("{\"items\":")[0];
+	private static final byte[] PAGE_CURSOR = ascii(",\"nextCursor\":")[0];
+	private static final byte[] HEX = ascii("0123456789ABCDEF")[0];
+
+	/** Response body together with the ETag it would have on the mapped path. */
+	@Value
+	public static class Rendered {
+		Buffer body;
+		EntityTag tag;
+	}
+
+	/**
+	 * Renders one product.
+	 * @param document stored product
+	 * @return the product as JSON and its version tag
+	 */
+	public static Rendered one(RawBsonDocument document) {
+		Transcoder transcoder = new Transcoder(128);
+		transcoder.product(document);
+		return new Rendered(transcoder.body(), ProductETags.ofVersion(transcoder.version));
+	}
+
+	/**
+	 * Renders a JSON array of products.
+	 * @param documents stored products in response order
+	 * @return the array and its list tag
+	 */
+	public static Rendered list(List<RawBsonDocument> documents) {
+		Transcoder transcoder = new Transcoder(capacity(documents));
+		transcoder.array(documents);
+		return new Rendered(transcoder.body(), ProductETags.ofList(documents.size(), transcoder.hash));
+	}
+
+	/**
+	 * Renders a keyset page as {@code ProductPageResponse} does.
+	 * @param documents stored products of the page, in id order
+	 * @param pageSize requested page size; a full page carries the last id as next cursor
+	 * @return the page and its list tag
+	 */
+	public static Rendered page(List<RawBsonDocument> documents, int pageSize) {
+		Transcoder transcoder = new Transcoder(capacity(documents) + 48);
+		transcoder.out.writeBytes(PAGE_START);
+		transcoder.array(documents);
+		transcoder.out.writeBytes(PAGE_CURSOR);
+		if (!documents.isEmpty() && documents.size() == pageSize) {
+			transcoder.number(transcoder.id);
+		} else {
+			transcoder.out.writeBytes(JSON_NULL);
+		}
+		transcoder.out.writeByte('}');
+		return new Rendered(transcoder.body(), ProductETags.ofList(documents.size(), transcoder.hash));
+	}
+
+	private static int capacity(List<RawBsonDocument> documents) {
+		// Typical products render to about a hundred bytes; the buffer grows when needed
+		return 2 + documents.size() * 128;
+	}
+
+	private static byte[][] ascii(String... values) {
+		return Arrays.stream(values).map(v -> v.getBytes(StandardCharsets.US_ASCII)).toArray(byte[][]::new);
+	}
+
+	/** Writes into one buffer; field positions are reused across documents. */
+	private static final class Transcoder {
+		final ByteBuf out;
+		/** Per product field: offset of its value in the current document, or -1 when absent. */
+		final int[] valueAt = new int[STORED_NAMES.length];
+		final byte[] typeOf = new byte[STORED_NAMES.length];
+		long hash = ProductETags.LIST_SEED;
+		long id;
+		long version;
+
+		Transcoder(int capacity) {
+			out = Unpooled.buffer(capacity);
+		}
+
+		Buffer body() {
+			// Wraps without copying; Buffer.buffer(ByteBuf) is deprecated (gone from the Vert.x 5 API)
+			return BufferImpl.buffer(out);
+		}
+
+		void array(List<RawBsonDocument> documents) {
+			out.writeByte('[');
+			for (int i = 0; i < documents.size(); i++) {
+				if (i > 0) {
+					out.writeByte(',');
+				}
+				product(documents.get(i));
+				hash = ProductETags.mix(hash, id, version);
+			}
+			out.writeByte(']');
+		}
+
+		void product(RawBsonDocument document) {
+			ByteBuffer nio = document.getByteBuffer().asNIO();
+			byte[] bson = nio.array();
+			int start = nio.arrayOffset() + nio.position();
+			locate(bson, start);
+			id = 0;
+			version = 0;
+			for (int field = 0; field < STORED_NAMES.length; field++) {
+				out.writeBytes(JSON_KEYS[field]);
+				int at = valueAt[field];
+				byte type = typeOf[field];
+				if (at < 0 || type == NULL) {
+					out.writeBytes(JSON_NULL);
+					continue;
+				}
+				switch (field) {
+					case ID -> number(id = integral(bson, at, type, field));
+					case VERSION -> number(version = integral(bson, at, type, field));
+					case QUANTITY -> {
+						long quantity = integral(bson, at, type, field);
+						if (quantity != (int) quantity) {
+							throw unsupported(field, "value " + quantity + " does not fit an int");
+						}
+						number(quantity);
+					}
+					case PRICE -> decimal(switch (type) {
+						case DOUBLE -> Double.longBitsToDouble(int64(bson, at));
+						case INT32 -> int32(bson, at);
+						case INT64 -> int64(bson, at);
+						default -> throw unsupported(field, "type " + type);
+					});
+					default -> {
+						if (type != STRING) {
+							throw unsupported(field, "type " + type);
+						}
+						string(bson, at + 4, int32(bson, at) - 1);
+					}
+				}
+			}
+			out.writeByte('}');
+		}
+
+		/** Records where each product field's value starts; other elements are skipped. */
+		private void locate(byte[] bson, int start) {
+			Arrays.fill(valueAt, -1);
+			int end = start + int32(bson, start) - 1;
+			int at = start + 4;
+			while (at < end) {
+				byte type = bson[at++];
+				int nameStart = at;
+				while (bson[at] != 0) {
+					at++;
+				}
+				int field = field(bson, nameStart, at);
+				at++;
+				if (field >= 0) {
+					valueAt[field] = at;
+					typeOf[field] = type;
+				}
+				at += valueSize(bson, at, type);
+			}
+		}
+
+		private static int field(byte[] bson, int from, int to) {
+			for (int field = 0; field < STORED_NAMES.length; field++) {
+				if (Arrays.equals(bson, from, to, STORED_NAMES[field], 0, STORED_NAMES[field].length)) {
+					return field;
+				}
+			}
+			return -1;
+		}
+
+		private static int valueSize(byte[] bson, int at, byte type) {
+			return switch (type) {
+				case DOUBLE, DATE_TIME, TIMESTAMP, INT64 -> 8;
+				case STRING, JAVASCRIPT, SYMBOL -> 4 + int32(bson, at);
+				case DOCUMENT, ARRAY, JAVASCRIPT_WITH_SCOPE -> int32(bson, at);
+				case BINARY -> 5 + int32(bson, at);
+				case OBJECT_ID -> 12;
+				case BOOLEAN -> 1;
+				case INT32 -> 4;
+				case DECIMAL128 -> 16;
+				case UNDEFINED, NULL, MIN_KEY, MAX_KEY -> 0;
+				case DB_POINTER -> 4 + int32(bson, at) + 12;
+				case REGEX -> {
+					int end = at;
+					for (int cstrings = 0; cstrings < 2; cstrings++) {
+						while (bson[end] != 0) {
+							end++;
+						}
+						end++;
+					}
+					yield end - at;
+				}
+				default -> throw new IllegalStateException("Unknown BSON element type " + type);
+			};
+		}
+
+		/** Reads a whole number the way the POJO codec converts into Long and Integer fields. */
+		private static long integral(byte[] bson, int at, byte type, int field) {
+			switch (type) {
+				case INT32:
+					return int32(bson, at);
+				case INT64:
+					return int64(bson, at);
+				case DOUBLE:
+					double value = Double.longBitsToDouble(int64(bson, at));
+					if (value != (long) value) {
+						throw unsupported(field, "value " + value + " is not a whole number");
+					}
+					return (long) value;
+				default:
+					throw unsupported(field, "type " + type);
+			}
+		}
+
+		private static IllegalStateException unsupported(int field, String reason) {
+			return new IllegalStateException("Cannot render product field " + new String(STORED_NAMES[field], StandardCharsets.US_ASCII) + ": " + reason);
+		}
+
+		void number(long value) {
+			if (value == Long.MIN_VALUE) {
+				out.writeCharSequence(Long.toString(value), StandardCharsets.US_ASCII);
+				return;
+			}
+			if (value < 0) {
+				out.writeByte('-');
+				value = -value;
+			}
+			long divisor = 1;
+			while (value / divisor >= 10) {
+				divisor *= 10;
+			}
+			for (; divisor > 0; divisor /= 10) {
+				out.writeByte((int) ('0' + value / divisor % 10));
+			}
+		}
+
+		void decimal(double value) {
+			// Jackson quotes non-finite numbers by default
+			if (!Double.isFinite(value)) {
+				out.writeByte('"');
+				out.writeCharSequence(Double.toString(value), StandardCharsets.US_ASCII);
+				out.writeByte('"');
+				return;
+			}
+			out.writeCharSequence(Double.toString(value), StandardCharsets.US_ASCII);
+		}
+
+		/** Copies UTF-8 bytes, escaping as Jackson does; multi-byte sequences never contain bytes below 0x80. */
+		void string(byte[] bson, int from, int length) {
+			out.writeByte('"');
+			int run = from;
+			int end = from + length;
+			for (int i = from; i < end; i++) {
+				int b = bson[i] & 0xFF;
+				if (b >= 0x20 && b != '"' && b != '\\') {
+					continue;
+				}
+				out.writeBytes(bson, run, i - run);
+				run = i + 1;
+				out.writeByte('\\');
+				switch (b) {
+					case '"', '\\' -> out.writeByte(b);
+					case '\b' -> out.writeByte('b');
+					case '\t' -> out.writeByte('t');
+					case '\n' -> out.writeByte('n');
+					case '\f' -> out.writeByte('f');
+					case '\r' -> out.writeByte('r');
+					default -> {
+						out.writeByte('u').writeByte('0').writeByte('0');
+						out.writeByte(HEX[b >> 4]).writeByte(HEX[b & 0xF]);
+					}
+				}
+			}
+			out.writeBytes(bson, run, end - run);
+			out.writeByte('"');
+		}
+
+		private static int int32(byte[] bson, int at) {
+			return (bson[at] & 0xFF) | (bson[at + 1] & 0xFF) << 8 | (bson[at + 2] & 0xFF) << 16 | (bson[at + 3] & 0xFF) << 24;
+		}
+
+		private static long int64(byte[] bson, int at) {
+			return (int32(bson, at) & 0xFFFFFFFFL) | (long) int32(bson, at + 4) << 32;
+		}
+	}
+}
@@ -17,6 +17,39 @@ public class UriConstants {
 	/** Path for availability endpoint. */
 	public static final String ID_AVAILABILITY = "/{id}/availability";
 
+	/** Path for single-product stock reservation. */
+	public static final String ID_RESERVE = "/{id}/reserve";
+
+	/** Path for multi-product stock reservation. */
+	public static final String RESERVE = "/reserve";
+
+	/** Path for batch availability endpoint. */
+	public static final String AVAILABILITY = "/availability";
+
+	/** Path for multi-get endpoint. */
+	public static final String BATCH_GET = "/batch-get";
+
 	/** Path for sorted by price endpoint. */
 	public static final String SORTED_PRICE = "/sorted/price";
+
+	/** Path for streaming bulk ingestion. */
+	public static final String INGEST = "/ingest";
+
+	/** Path for CSV bulk import. */
+	public static final String IMPORT_CSV = "/import/csv";
+
+	/** Path for product cache statistics. */
+	public static final String CACHE_STATS = "/cache/stats";
+
+	/** Path for filtered, keyset-paginated product listing. */
+	public static final String FILTER = "/filter";
+
+	/** Path for full-text product search. */
+	public static final String SEARCH = "/search";
+
+	/** Path for aggregated inventory statistics. */
+	public static final String STATS = "/stats";
+
+	/** Path for NDJSON streaming of all products. */
+	public static final String STREAM = "/stream";
 }
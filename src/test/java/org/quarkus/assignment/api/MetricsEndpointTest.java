@@ -0,0 +1,34 @@
+package org.quarkus.assignment.api;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.Uni;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.quarkus.assignment.service.ProductService;
+
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+
+@QuarkusTest
+class MetricsEndpointTest {
+
+    @InjectMock
+    ProductService service;
+
+    @Test
+    void scrapeEndpoint_exposesEndpointLatencyPercentiles() {
+        Mockito.when(service.getAllProducts()).thenReturn(Uni.createFrom().item(List.of()));
+        given().when().get("/products").then().statusCode(200);
+
+        given()
+            .when().get("/q/metrics")
+            .then()
+            .statusCode(200)
+            .body(Matchers.containsString("http_server_requests_seconds{"))
+            .body(Matchers.containsString("quantile=\"0.99\""))
+            .body(Matchers.containsString("uri=\"/products\""));
+    }
+}
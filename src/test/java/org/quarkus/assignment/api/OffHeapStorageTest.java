@@ -0,0 +1,67 @@
+package org.quarkus.assignment.api;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.quarkus.assignment.persistence.ProductRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+
+@QuarkusTest
+@TestProfile(OffHeapStorageTest.OffHeap.class)
+class OffHeapStorageTest {
+
+    public static class OffHeap implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            try {
+                return Map.of(
+                    "app.storage.backend", "offheap",
+                    "app.storage.offheap.path", Files.createTempDirectory("offheap-store").toString(),
+                    "app.storage.offheap.max-products", "1000",
+                    "app.storage.offheap.arena-size", "1M");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @InjectMock
+    ProductRepository repository;
+
+    @Test
+    void crudAndReservations_neverTouchMongo() {
+        given().contentType("application/json")
+            .body("[{\"id\":1,\"name\":\"Apple\",\"description\":\"Red\",\"price\":2.5,\"quantity\":4},"
+                + "{\"id\":2,\"name\":\"Pear\",\"description\":\"Green\",\"price\":1.5,\"quantity\":1}]")
+            .when().post("/products")
+            .then().statusCode(201).body("summary.created", Matchers.is(2));
+
+        given().when().get("/products?id=1").then().statusCode(200)
+            .body("name", Matchers.is("Apple"))
+            .body("quantity", Matchers.is(4));
+        given().contentType("application/json").body("{\"price\":3.0}")
+            .when().put("/products/1")
+            .then().statusCode(200).body("summary.updated", Matchers.is(1));
+        given().when().post("/products/1/reserve?count=3").then().statusCode(200).body("remainingQuantity", Matchers.is(1));
+        given().when().post("/products/1/reserve?count=3").then().statusCode(409);
+        given().when().get("/products/sorted/price?order=DESC").then().statusCode(200)
+            .body("id", Matchers.contains(1, 2))
+            .body("[0].price", Matchers.is(3.0f));
+        given().when().delete("/products/2").then().statusCode(204);
+        given().when().get("/products?id=2").then().statusCode(404);
+
+        // Query-shaped features stay on Mongo
+        given().when().get("/products/stats").then().statusCode(503);
+        Mockito.verifyNoInteractions(repository);
+    }
+}
@@ -3,20 +3,37 @@ package org.quarkus.assignment.api;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.core.Response;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.quarkus.assignment.dto.BatchAvailabilityResponse;
+import org.quarkus.assignment.dto.InventoryStatsResponse;
+import org.quarkus.assignment.dto.ProductResponse;
+import org.quarkus.assignment.dto.ReservationResponse;
+import org.quarkus.assignment.dto.SearchResponse;
 import org.quarkus.assignment.dto.SummaryDto;
+import org.quarkus.assignment.mapper.ProductMapper;
 import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.ProductFilter;
 import org.quarkus.assignment.model.SortOrder;
 import org.quarkus.assignment.service.ProductService;
+import org.quarkus.assignment.service.ProductStatsService;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @QuarkusTest
 class ProductsControllerTest {
@@ -24,6 +41,9 @@ class ProductsControllerTest {
     @InjectMock
     ProductService service;
 
+    @InjectMock
+    ProductStatsService statsService;
+
     @Test
     void listAll_returnsOk() {
         Product p = new Product(); p.setId(1L); p.setName("A"); p.setPrice(10.0); p.setQuantity(5);
@@ -37,6 +57,51 @@ class ProductsControllerTest {
             .body("[0].id", Matchers.is(1));
     }
 
+    @Test
+    void listPage_returnsItemsAndNextCursor() {
+        Product p1 = new Product(); p1.setId(11L); p1.setName("A");
+        Product p2 = new Product(); p2.setId(12L); p2.setName("B");
+        Mockito.when(service.getProductsAfter(10L, 2)).thenReturn(Uni.createFrom().item(List.of(p1, p2)));
+        Mockito.when(service.getProductsAfter(12L, 2)).thenReturn(Uni.createFrom().item(List.of()));
+
+        given()
+            .when().get("/products?after=10&limit=2")
+            .then()
+            .statusCode(200)
+            .body("items.size()", Matchers.is(2))
+            .body("nextCursor", Matchers.is(12));
+
+        given()
+            .when().get("/products?after=12&limit=2")
+            .then()
+            .statusCode(200)
+            .body("items.size()", Matchers.is(0))
+            .body("nextCursor", Matchers.nullValue());
+    }
+
+    @Test
+    void listPage_invalidLimit_returns400() {
+        given()
+            .when().get("/products?limit=0")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void stream_returnsNdjson() {
+        Product p1 = new Product(); p1.setId(1L); p1.setName("A");
+        Product p2 = new Product(); p2.setId(2L); p2.setName("B");
+        Mockito.when(service.streamAllProducts()).thenReturn(Multi.createFrom().items(p1, p2));
+
+        String body = given()
+            .when().get("/products/stream")
+            .then()
+            .statusCode(200)
+            .contentType(Matchers.containsString("application/x-ndjson"))
+            .extract().asString();
+        assertEquals(2, body.trim().split("\n").length);
+    }
+
     @Test
     void getById_found_returnsOk() {
         Product p = new Product(); p.setId(2L); p.setName("B");
@@ -49,6 +114,98 @@ class ProductsControllerTest {
             .body("id", Matchers.is(2));
     }
 
+    @Test
+    void getById_matchingIfNoneMatch_returns304() {
+        Product p = new Product(); p.setId(2L); p.setName("B"); p.setVersion(3L);
+        Mockito.when(service.getProductById(2L)).thenReturn(Uni.createFrom().item(p));
+
+        given()
+            .when().get("/products?id=2")
+            .then()
+            .statusCode(200)
+            .header("ETag", "\"3\"")
+            .body("version", Matchers.is(3));
+
+        given()
+            .header("If-None-Match", "\"3\"")
+            .when().get("/products?id=2")
+            .then()
+            .statusCode(304)
+            .header("ETag", "\"3\"");
+
+        given()
+            .header("If-None-Match", "\"2\"")
+            .when().get("/products?id=2")
+            .then()
+            .statusCode(200);
+    }
+
+    @Test
+    void listAll_matchingIfNoneMatch_returns304() {
+        Product p = new Product(); p.setId(1L); p.setVersion(1L);
+        Mockito.when(service.getAllProducts()).thenReturn(Uni.createFrom().item(List.of(p)));
+
+        String etag = given().when().get("/products").then().statusCode(200).extract().header("ETag");
+
+        given()
+            .header("If-None-Match", etag)
+            .when().get("/products")
+            .then()
+            .statusCode(304);
+
+        p.setVersion(2L);
+        given()
+            .header("If-None-Match", etag)
+            .when().get("/products")
+            .then()
+            .statusCode(200);
+    }
+
+    @Test
+    void search_returnsRankedItems_andValidatesInput() {
+        SearchResponse body = SearchResponse.builder()
+            .query("apple").totalMatches(3)
+            .item(ProductResponse.builder().id(2L).name("Green Apple").build())
+            .build();
+        Mockito.when(service.search("apple", 20)).thenReturn(Uni.createFrom().item(body));
+
+        given()
+            .when().get("/products/search?q=apple")
+            .then()
+            .statusCode(200)
+            .body("totalMatches", Matchers.is(3))
+            .body("items[0].id", Matchers.is(2));
+
+        given().queryParam("q", " ").when().get("/products/search").then().statusCode(400);
+        given().when().get("/products/search?q=apple&limit=101").then().statusCode(400);
+    }
+
+    @Test
+    void filter_returnsPageAndCursorThatResumesAfterLastItem() {
+        Product a = new Product(); a.setId(4L); a.setPrice(2.5);
+        Product b = new Product(); b.setId(9L); b.setPrice(3.0);
+        Mockito.when(service.filterProducts(Mockito.any(ProductFilter.class))).thenReturn(Uni.createFrom().item(List.of(a, b)));
+
+        String cursor = given()
+            .when().get("/products/filter?minPrice=1&maxPrice=5&limit=2")
+            .then()
+            .statusCode(200)
+            .body("items.id", Matchers.contains(4, 9))
+            .body("nextCursor", Matchers.notNullValue())
+            .extract().path("nextCursor");
+
+        given().queryParam("cursor", cursor).when().get("/products/filter?minPrice=1&maxPrice=5&limit=2").then().statusCode(200);
+        ArgumentCaptor<ProductFilter> filters = ArgumentCaptor.forClass(ProductFilter.class);
+        Mockito.verify(service, Mockito.times(2)).filterProducts(filters.capture());
+        ProductFilter resumed = filters.getAllValues().get(1);
+        assertEquals(3.0, resumed.getAfterPrice());
+        assertEquals(9L, resumed.getAfterId());
+        assertEquals(1.0, resumed.getMinPrice());
+
+        given().when().get("/products/filter?cursor=bm90LWEtY3Vyc29y").then().statusCode(400);
+        given().when().get("/products/filter?minPrice=5&maxPrice=1").then().statusCode(400);
+    }
+
     @Test
     void getById_missing_returns404() {
         Mockito.when(service.getProductById(999L)).thenReturn(Uni.createFrom().nullItem());
@@ -79,6 +236,106 @@ class ProductsControllerTest {
             .statusCode(200);
     }
 
+    @Test
+    void sparseFields_returnOnlyRequestedFields_andRejectUnknown() {
+        Product p = new Product(); p.setId(2L); p.setName("B"); p.setPrice(3.5); p.setVersion(4L);
+        Set<String> fields = new LinkedHashSet<>(List.of("id", "price"));
+        Mockito.when(service.getProductById(2L, fields)).thenReturn(Uni.createFrom().item(p));
+        Mockito.when(service.getAllSortedByPrice(SortOrder.ASC, fields)).thenReturn(Uni.createFrom().item(List.of(p)));
+
+        given()
+            .queryParam("fields", "id,price")
+            .when().get("/products?id=2")
+            .then()
+            .statusCode(200)
+            .header("ETag", "\"4\"")
+            .body("id", Matchers.is(2))
+            .body("price", Matchers.is(3.5f))
+            .body("$", Matchers.not(Matchers.hasKey("name")));
+
+        given()
+            .queryParam("fields", "id,price")
+            .when().get("/products/sorted/price")
+            .then()
+            .statusCode(200)
+            .body("[0].keySet()", Matchers.contains("id", "price"));
+
+        given()
+            .queryParam("fields", "id,secret")
+            .when().get("/products")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void stats_returnsAggregation_andValidatesParameters() {
+        Mockito.when(statsService.getStats(5, List.of(0d, 10d)))
+            .thenReturn(Uni.createFrom().item(InventoryStatsResponse.builder().productCount(4).lowStockThreshold(5).lowStockCount(1).build()));
+
+        given()
+            .when().get("/products/stats?lowStockThreshold=5&buckets=0,10")
+            .then()
+            .statusCode(200)
+            .body("productCount", Matchers.is(4))
+            .body("lowStockCount", Matchers.is(1));
+
+        given().when().get("/products/stats?buckets=10,5").then().statusCode(400);
+        given().when().get("/products/stats?buckets=a").then().statusCode(400);
+        given().when().get("/products/stats?lowStockThreshold=-1").then().statusCode(400);
+    }
+
+    @Test
+    void batchAvailability_reportsPerIdAndMissing() {
+        Mockito.when(service.getAvailability(Mockito.anyList())).thenReturn(Uni.createFrom().item(BatchAvailabilityResponse.builder()
+            .item(ProductMapper.toAvailability(1L, 3, 5))
+            .missingId(2L)
+            .build()));
+
+        List<Map<String, Object>> body = List.of(
+            Map.of("id", 1, "count", 3),
+            Map.of("id", 2, "count", 1)
+        );
+
+        given().contentType(ContentType.JSON).body(body)
+            .when().post("/products/availability")
+            .then()
+            .statusCode(200)
+            .body("items.size()", Matchers.is(1))
+            .body("items[0].available", Matchers.is(true))
+            .body("items[0].availableQuantity", Matchers.is(5))
+            .body("missingIds", Matchers.contains(2));
+    }
+
+    @Test
+    void reserve_returnsRemainingQuantity() {
+        Mockito.when(service.reserve(3L, 2)).thenReturn(Uni.createFrom().item(
+            ReservationResponse.builder().id(3L).reserved(2).remainingQuantity(5).build()));
+
+        given()
+            .when().post("/products/3/reserve?count=2")
+            .then()
+            .statusCode(200)
+            .body("remainingQuantity", Matchers.is(5));
+
+        given()
+            .when().post("/products/3/reserve?count=0")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void batchGet_returnsFoundAndMissing() {
+        Product p = new Product(); p.setId(4L); p.setName("D");
+        Mockito.when(service.getProductsByIds(Mockito.anyCollection())).thenReturn(Uni.createFrom().item(List.of(p)));
+
+        given().contentType(ContentType.JSON).body(List.of(4, 8))
+            .when().post("/products/batch-get")
+            .then()
+            .statusCode(200)
+            .body("items[0].id", Matchers.is(4))
+            .body("missingIds", Matchers.contains(8));
+    }
+
     @Test
     void put_upsert_returnsOk() {
         SummaryDto summary = SummaryDto.builder().created(1).updated(0).duplicates(0).total(1).build();
@@ -100,6 +357,60 @@ class ProductsControllerTest {
             .body("summary.created", Matchers.is(1));
     }
 
+    @Test
+    void put_ifMatch_updatesWhenVersionMatches() {
+        Product updated = new Product(); updated.setId(5L); updated.setName("X"); updated.setVersion(4L);
+        Mockito.when(service.patchIfVersion(Mockito.any(Product.class), Mockito.eq(3L))).thenReturn(Uni.createFrom().item(updated));
+
+        given()
+            .contentType(ContentType.JSON)
+            .header("If-Match", "\"3\"")
+            .body(Map.of("name", "X"))
+            .when().put("/products/5")
+            .then()
+            .statusCode(200)
+            .header("ETag", "\"4\"")
+            .body("summary.updated", Matchers.is(1))
+            .body("item.version", Matchers.is(4));
+    }
+
+    @Test
+    void put_ifMatch_staleOrMalformed_returns412() {
+        Mockito.when(service.patchIfVersion(Mockito.any(Product.class), Mockito.eq(2L)))
+            .thenReturn(Uni.createFrom().failure(new ClientErrorException("modified", Response.Status.PRECONDITION_FAILED)));
+
+        given()
+            .contentType(ContentType.JSON)
+            .header("If-Match", "\"2\"")
+            .body(Map.of("name", "X"))
+            .when().put("/products/5")
+            .then()
+            .statusCode(412);
+
+        given()
+            .contentType(ContentType.JSON)
+            .header("If-Match", "\"abc\"")
+            .body(Map.of("name", "X"))
+            .when().put("/products/5")
+            .then()
+            .statusCode(412);
+    }
+
+    @Test
+    void put_ifMatchAny_neverCreates() {
+        Mockito.when(service.patchIfPresent(Mockito.any(Product.class)))
+            .thenReturn(Uni.createFrom().failure(new ClientErrorException("missing", Response.Status.PRECONDITION_FAILED)));
+
+        given()
+            .contentType(ContentType.JSON)
+            .header("If-Match", "*")
+            .body(Map.of("name", "X"))
+            .when().put("/products/6")
+            .then()
+            .statusCode(412);
+        Mockito.verify(service, Mockito.never()).patchProducts(Mockito.anyList());
+    }
+
     @Test
     void post_create_returns201_or409() {
         SummaryDto created = SummaryDto.builder().created(1).updated(0).duplicates(0).total(1).build();
@@ -124,6 +435,81 @@ class ProductsControllerTest {
             .when().post("/products")
             .then().statusCode(409);
     }
-}
 
+    @Test
+    void post_withoutEcho_omitsItems() {
+        SummaryDto created = SummaryDto.builder().created(1).updated(0).duplicates(0).total(1).build();
+        Mockito.when(service.createProducts(Mockito.anyList())).thenReturn(Uni.createFrom().item(created));
+
+        List<Map<String, Object>> body = List.of(Map.of("id", 8, "name", "Z", "price", 1.0, "quantity", 1));
+
+        given().contentType(ContentType.JSON).body(body)
+            .when().post("/products?echo=false")
+            .then().statusCode(201)
+            .body("summary.created", Matchers.is(1))
+            .body("$", Matchers.not(Matchers.hasKey("items")));
+    }
+
+    @Test
+    void ingest_writesInBatchesAndReturnsSummary() {
+        Mockito.when(service.createProducts(Mockito.anyList())).thenAnswer(inv -> {
+            List<Product> batch = inv.getArgument(0);
+            return Uni.createFrom().item(SummaryDto.builder().created(batch.size()).total(batch.size()).build());
+        });
+
+        List<Map<String, Object>> body = List.of(
+            Map.of("id", 1, "name", "A", "price", 1.0, "quantity", 1),
+            Map.of("id", 2, "name", "B", "price", 2.0, "quantity", 2),
+            Map.of("id", 3, "name", "C", "price", 3.0, "quantity", 3)
+        );
+
+        given().contentType(ContentType.JSON).body(body)
+            .when().post("/products/ingest")
+            .then().statusCode(201)
+            .body("summary.created", Matchers.is(3))
+            .body("summary.total", Matchers.is(3))
+            .body("$", Matchers.not(Matchers.hasKey("items")));
+        // test profile uses a batch size of 2
+        Mockito.verify(service, Mockito.times(2)).createProducts(Mockito.anyList());
+    }
+
+    @Test
+    void ingest_invalidElement_returns400() {
+        List<Map<String, Object>> body = List.of(Map.of("id", 1, "name", "A"));
+
+        given().contentType(ContentType.JSON).body(body)
+            .when().post("/products/ingest")
+            .then().statusCode(400)
+            .body("message", Matchers.containsString("index 0"));
+    }
+
+    @Test
+    void ingest_emptyArray_returns400() {
+        given().contentType(ContentType.JSON).body("[]")
+            .when().post("/products/ingest")
+            .then().statusCode(400)
+            .body("message", Matchers.containsString("non-empty"));
+        Mockito.verify(service, Mockito.never()).createProducts(Mockito.anyList());
+    }
 
+    @Test
+    void bodyLimit_appliesToBufferedEndpointsButNotToIngest() {
+        Mockito.when(service.createProducts(Mockito.anyList())).thenAnswer(inv -> {
+            List<Product> batch = inv.getArgument(0);
+            return Uni.createFrom().item(SummaryDto.builder().created(batch.size()).total(batch.size()).build());
+        });
+        // test profile limits other endpoints to 64K
+        String description = "x".repeat(1000);
+        String body = IntStream.rangeClosed(1, 100)
+            .mapToObj(i -> "{\"id\":" + i + ",\"name\":\"P\",\"description\":\"" + description + "\",\"price\":1.0,\"quantity\":1}")
+            .collect(Collectors.joining(",", "[", "]"));
+
+        given().contentType(ContentType.JSON).body(body)
+            .when().post("/products?echo=false")
+            .then().statusCode(413);
+        given().contentType(ContentType.JSON).body(body)
+            .when().post("/products/ingest")
+            .then().statusCode(201)
+            .body("summary.created", Matchers.is(100));
+    }
+}
@@ -1,5 +1,6 @@
 package org.quarkus.assignment.api;
 
+import com.mongodb.bulk.BulkWriteResult;
 import io.quarkus.mongodb.panache.reactive.ReactivePanacheQuery;
 import io.quarkus.panache.common.Sort;
 import io.quarkus.test.InjectMock;
@@ -28,10 +29,7 @@ class ProductsFlowE2ETest {
     @Test
     void fullCrudFlow_endToEnd_fast() {
         // POST /products → created
-        ReactivePanacheQuery<Product> emptyQuery = Mockito.mock(ReactivePanacheQuery.class);
-        Mockito.when(repository.find(eq("_id in ?1"), any(Object[].class))).thenReturn(emptyQuery);
-        Mockito.when(emptyQuery.list()).thenReturn(Uni.createFrom().item(List.of()));
-        Mockito.when(repository.persist(any(List.class))).thenReturn(Uni.createFrom().voidItem());
+        Mockito.when(repository.insertUnordered(any(List.class))).thenReturn(Uni.createFrom().item(0));
 
         List<Map<String, Object>> body = List.of(Map.of(
                 "id", 101,
@@ -55,10 +53,8 @@ class ProductsFlowE2ETest {
                 .body("name", Matchers.is("ZX"));
 
         // PUT /products/101 → update name
-        ReactivePanacheQuery<Product> foundQuery = Mockito.mock(ReactivePanacheQuery.class);
-        Mockito.when(repository.find(eq("_id in ?1"), any(Object[].class))).thenReturn(foundQuery);
-        Mockito.when(foundQuery.list()).thenReturn(Uni.createFrom().item(List.of(stored)));
-        Mockito.when(repository.persistOrUpdate(any(List.class))).thenReturn(Uni.createFrom().voidItem());
+        BulkWriteResult updatedOne = BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of());
+        Mockito.when(repository.upsertFields(any(List.class))).thenReturn(Uni.createFrom().item(updatedOne));
 
         Map<String, Object> update = Map.of(
                 "id", 101,
@@ -0,0 +1,88 @@
+package org.quarkus.assignment.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.quarkus.assignment.mapper.ProductMapper;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.persistence.ProductRepository;
+import org.quarkus.assignment.util.ProductETags;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestProfile(RawReadsTest.RawReads.class)
+class RawReadsTest {
+
+    public static class RawReads implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("app.products.raw-reads.enabled", "true");
+        }
+    }
+
+    @InjectMock
+    ProductRepository repository;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Test
+    void fullReads_areTranscodedFromBsonWithTheMappedBodyAndTags() throws Exception {
+        Product apple = product(1L, "Apple", 2.5, 4, 3L);
+        Product pear = product(2L, "Pear \"green\"", 1.5, 0, 1L);
+        Mockito.when(repository.findRaw(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+            .thenReturn(Uni.createFrom().item(List.of(raw(apple), raw(pear))));
+
+        String list = given().when().get("/products").then().statusCode(200)
+            .header("ETag", "\"" + ProductETags.of(List.of(apple, pear)).getValue() + "\"")
+            .extract().asString();
+        assertEquals(objectMapper.writeValueAsString(List.of(ProductMapper.toResponse(apple), ProductMapper.toResponse(pear))), list);
+        given().when().get("/products/sorted/price?order=DESC").then().statusCode(200).body("[1].name", Matchers.is("Pear \"green\""));
+        given().when().get("/products?limit=2").then().statusCode(200)
+            .body("items.id", Matchers.contains(1, 2))
+            .body("nextCursor", Matchers.is(2));
+
+        Mockito.when(repository.findRaw(ArgumentMatchers.any(), ArgumentMatchers.isNull(), ArgumentMatchers.eq(1)))
+            .thenReturn(Uni.createFrom().item(List.of(raw(apple))));
+        String one = given().when().get("/products?id=1").then().statusCode(200).header("ETag", "\"3\"").extract().asString();
+        assertEquals(objectMapper.writeValueAsString(ProductMapper.toResponse(apple)), one);
+        given().header("If-None-Match", "\"3\"").when().get("/products?id=1").then().statusCode(304);
+
+        Mockito.when(repository.findRaw(ArgumentMatchers.any(), ArgumentMatchers.isNull(), ArgumentMatchers.eq(1)))
+            .thenReturn(Uni.createFrom().item(List.of()));
+        given().when().get("/products?id=9").then().statusCode(404);
+        Mockito.verify(repository, Mockito.never()).findById(ArgumentMatchers.any());
+    }
+
+    private static RawBsonDocument raw(Product p) {
+        return new RawBsonDocument(new Document("_id", p.getId()).append("name", p.getName()).append("description", p.getDescription())
+            .append("price", p.getPrice()).append("quantity", p.getQuantity()).append("version", p.getVersion()), new DocumentCodec());
+    }
+
+    private static Product product(long id, String name, double price, int quantity, long version) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setDescription(name + " description");
+        p.setPrice(price);
+        p.setQuantity(quantity);
+        p.setVersion(version);
+        return p;
+    }
+}
@@ -0,0 +1,66 @@
+package org.quarkus.assignment.api;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.SortOrder;
+import org.quarkus.assignment.persistence.BlockingProductRepository;
+import org.quarkus.assignment.persistence.ProductRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestProfile(VirtualThreadModeTest.VirtualThreads.class)
+class VirtualThreadModeTest {
+
+    public static class VirtualThreads implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("app.execution.mode", "virtual-threads");
+        }
+    }
+
+    @InjectMock
+    BlockingProductRepository blockingRepository;
+
+    @InjectMock
+    ProductRepository repository;
+
+    @Test
+    void reads_runAsBlockingCodeOnVirtualThreads() {
+        List<Boolean> virtual = new CopyOnWriteArrayList<>();
+        Product p = new Product(); p.setId(2L); p.setName("B"); p.setPrice(5.0); p.setQuantity(3); p.setVersion(1L);
+        Mockito.when(blockingRepository.findById(2L)).thenAnswer(invocation -> {
+            virtual.add(Thread.currentThread().isVirtual());
+            return p;
+        });
+        Mockito.when(blockingRepository.findAfter(null, 10)).thenAnswer(invocation -> {
+            virtual.add(Thread.currentThread().isVirtual());
+            return List.of(p);
+        });
+        Mockito.when(blockingRepository.listByPrice(SortOrder.DESC)).thenAnswer(invocation -> {
+            virtual.add(Thread.currentThread().isVirtual());
+            return List.of(p);
+        });
+
+        given().when().get("/products?id=2").then().statusCode(200).body("name", Matchers.is("B"));
+        given().when().get("/products?limit=10").then().statusCode(200).body("items[0].id", Matchers.is(2));
+        given().when().get("/products/sorted/price?order=DESC").then().statusCode(200).body("[0].id", Matchers.is(2));
+        given().when().get("/products/2/availability?count=5").then().statusCode(200).body("available", Matchers.is(false));
+        given().when().get("/products/3/availability?count=1").then().statusCode(404);
+
+        // the availability check is answered from the near cache filled by the first lookup
+        assertEquals(List.of(true, true, true), virtual);
+        Mockito.verifyNoInteractions(repository);
+    }
+}
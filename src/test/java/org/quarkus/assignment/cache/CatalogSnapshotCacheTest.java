@@ -0,0 +1,91 @@
+package org.quarkus.assignment.cache;
+
+import io.quarkus.mongodb.panache.reactive.ReactivePanacheQuery;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.persistence.ProductRepository;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.mockito.ArgumentMatchers.any;
+
+@QuarkusTest
+@TestProfile(CatalogSnapshotCacheTest.SnapshotsEnabled.class)
+class CatalogSnapshotCacheTest {
+
+    public static class SnapshotsEnabled implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "app.cache.catalog.enabled", "true",
+                "app.cache.catalog.rebuild-delay", "1H");
+        }
+    }
+
+    @Inject
+    CatalogSnapshotCache snapshots;
+
+    @InjectMock
+    ProductRepository repository;
+
+    @Test
+    void listsAreServedFromSnapshotUntilInvalidated() {
+        stubCatalog(product(1L, 5.0), product(2L, 3.0));
+        snapshots.rebuild().await().indefinitely();
+
+        // The stored catalog changes behind the snapshot's back; reads keep seeing the snapshot
+        stubCatalog(product(3L, 1.0));
+        String etag = given()
+            .header("Accept-Encoding", "identity")
+            .when().get("/products")
+            .then()
+            .statusCode(200)
+            .header("Vary", "Accept-Encoding")
+            .body("id", Matchers.contains(1, 2))
+            .extract().header("ETag");
+        given()
+            .header("Accept-Encoding", "identity")
+            .header("If-None-Match", etag)
+            .when().get("/products")
+            .then()
+            .statusCode(304);
+        given()
+            .header("Accept-Encoding", "gzip")
+            .when().get("/products/sorted/price?order=DESC")
+            .then()
+            .statusCode(200)
+            .header("ETag", Matchers.endsWith("-gzip\""))
+            .body("id", Matchers.contains(1, 2));
+
+        snapshots.invalidate();
+        given()
+            .when().get("/products")
+            .then()
+            .statusCode(200)
+            .body("id", Matchers.contains(3));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubCatalog(Product... products) {
+        ReactivePanacheQuery<Product> query = Mockito.mock(ReactivePanacheQuery.class);
+        Mockito.when(query.list()).thenReturn(Uni.createFrom().item(List.of(products)));
+        Mockito.when(repository.findAll(any(Sort.class))).thenReturn(query);
+        Mockito.when(repository.listAll()).thenReturn(Uni.createFrom().item(List.of(products)));
+    }
+
+    private static Product product(long id, double price) {
+        Product p = new Product(); p.setId(id); p.setName("P" + id); p.setPrice(price); p.setQuantity(1); p.setVersion(1L);
+        return p;
+    }
+}
@@ -0,0 +1,76 @@
+package org.quarkus.assignment.changes;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.persistence.ProductRepository;
+import org.quarkus.assignment.service.ProductService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+@TestProfile(ProductChangeListenerTest.LocalChanges.class)
+class ProductChangeListenerTest {
+
+    static final Path TOKEN = Path.of("target/test-product-changes.token");
+
+    public static class LocalChanges implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "app.changes.enabled", "true",
+                "app.changes.source", "local",
+                "app.changes.resume-token-path", TOKEN.toString(),
+                "app.changes.token-save-interval", "1H");
+        }
+    }
+
+    @Inject
+    ProductChangeListener listener;
+
+    @Inject
+    LocalChangeSource source;
+
+    @Inject
+    ProductService service;
+
+    @InjectMock
+    ProductRepository repository;
+
+    @Test
+    void remoteChangesInvalidateCache_andAreReplayedAfterRestart() throws Exception {
+        stubQuantity(5);
+        assertEquals(5, service.getProductById(7L).await().indefinitely().getQuantity());
+
+        // Written by another node: the cached copy is served until the change arrives
+        stubQuantity(9);
+        assertEquals(5, service.getProductById(7L).await().indefinitely().getQuantity());
+        source.publish(ProductChangeEvent.Type.UPSERTED, 7L);
+        assertEquals(9, service.getProductById(7L).await().indefinitely().getQuantity());
+
+        listener.stop();
+        assertTrue(Files.exists(TOKEN), "resume token is saved on stop");
+
+        // Missed while stopped, then replayed from the stored token
+        stubQuantity(11);
+        source.publish(ProductChangeEvent.Type.UPSERTED, 7L);
+        assertEquals(9, service.getProductById(7L).await().indefinitely().getQuantity());
+        listener.start();
+        assertEquals(11, service.getProductById(7L).await().indefinitely().getQuantity());
+    }
+
+    private void stubQuantity(int quantity) {
+        Product p = new Product(); p.setId(7L); p.setQuantity(quantity);
+        Mockito.when(repository.findById(7L)).thenReturn(Uni.createFrom().item(p));
+    }
+}
@@ -0,0 +1,156 @@
+package org.quarkus.assignment.inventory;
+
+import com.mongodb.bulk.BulkWriteResult;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ClientErrorException;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.quarkus.assignment.dto.BatchAvailabilityResponse;
+import org.quarkus.assignment.dto.ProductCountRequest;
+import org.quarkus.assignment.persistence.ProductRepository;
+import org.quarkus.assignment.service.ProductService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+@QuarkusTest
+@TestProfile(InventoryLedgerTest.LedgerEnabled.class)
+class InventoryLedgerTest {
+
+    static final Path JOURNAL = Path.of("target/test-inventory-ledger.journal");
+    static final BulkWriteResult ACKNOWLEDGED = BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of());
+
+    public static class LedgerEnabled implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            try {
+                // start without deltas left by an earlier run
+                Files.deleteIfExists(JOURNAL);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return Map.of(
+                "app.inventory.ledger.enabled", "true",
+                "app.inventory.ledger.hot-ids", "42",
+                "app.inventory.ledger.flush-interval", "1H",
+                "app.inventory.ledger.journal-path", JOURNAL.toString());
+        }
+    }
+
+    @Inject
+    InventoryLedger ledger;
+
+    @Inject
+    ProductService service;
+
+    @InjectMock
+    ProductRepository repository;
+
+    @BeforeEach
+    void reloadView() {
+        // the ledger outlives each test's mocks
+        ledger.invalidate(Set.of(42L));
+    }
+
+    @Test
+    void hotReservationsStayLocalUntilFlushed_andJournalIsReplayed() throws Exception {
+        Mockito.when(repository.findInventory(42L)).thenReturn(Uni.createFrom().item(new Document("quantity", 10)));
+        Mockito.when(repository.incrementQuantities(anyMap(), anyString())).thenReturn(Uni.createFrom().item(ACKNOWLEDGED));
+
+        assertEquals(7, service.reserve(42L, 3).await().indefinitely().getRemainingQuantity());
+        assertEquals(7, service.getAvailableQuantity(42L).await().indefinitely());
+        assertFalse(service.isAvailable(42L, 8).await().indefinitely());
+        BatchAvailabilityResponse batch = service.getAvailability(List.of(new ProductCountRequest(42L, 8))).await().indefinitely();
+        assertEquals(7, batch.getItems().get(0).getAvailableQuantity());
+        assertFalse(batch.getItems().get(0).isAvailable());
+        assertThrows(ClientErrorException.class, () -> service.reserve(42L, 8).await().indefinitely());
+        Mockito.verify(repository, Mockito.never()).reserve(anyLong(), anyInt());
+        assertTrue(Files.size(JOURNAL) > 0);
+
+        ledger.flush().await().indefinitely();
+        Mockito.verify(repository).incrementQuantities(eq(Map.of(42L, -3L)), anyString());
+        assertEquals(0, Files.size(JOURNAL), "journal is compacted once every delta is flushed");
+
+        // a journal left by a crashed run is replayed into pending deltas
+        ByteBuffer record = ByteBuffer.allocate(17).put((byte) 1).putLong(42L).putLong(-5L).flip();
+        Files.write(JOURNAL, record.array());
+        ledger.replayJournal();
+        ledger.flush().await().indefinitely();
+        Mockito.verify(repository).incrementQuantities(eq(Map.of(42L, -5L)), anyString());
+
+        // a flush cut short by a crash: its decrement is replayed, its release is assumed applied
+        ByteBuffer unfinished = ByteBuffer.allocate(4 * 17)
+            .put((byte) 1).putLong(42L).putLong(-2L).put((byte) 3).putLong(42L).putLong(-2L)
+            .put((byte) 1).putLong(43L).putLong(4L).put((byte) 3).putLong(43L).putLong(4L).flip();
+        Files.write(JOURNAL, unfinished.array());
+        ledger.replayJournal();
+        ledger.flush().await().indefinitely();
+        Mockito.verify(repository).incrementQuantities(eq(Map.of(42L, -2L)), anyString());
+        Mockito.verify(repository, Mockito.times(3)).incrementQuantities(anyMap(), anyString());
+    }
+
+    @Test
+    void failedFlushIsResentUnchanged_andCountedUntilApplied() {
+        Mockito.when(repository.findInventory(42L)).thenReturn(Uni.createFrom().item(new Document("quantity", 10)));
+        Mockito.when(repository.incrementQuantities(anyMap(), anyString()))
+            .thenReturn(Uni.createFrom().failure(new IllegalStateException("timed out")), Uni.createFrom().item(ACKNOWLEDGED));
+        long before = ledger.available(42L).await().indefinitely();
+
+        ledger.reserve(42L, 2).await().indefinitely();
+        assertThrows(IllegalStateException.class, () -> ledger.flush().await().indefinitely());
+        ArgumentCaptor<String> flushId = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(repository).incrementQuantities(eq(Map.of(42L, -2L)), flushId.capture());
+
+        // Reloaded views count the unacknowledged flush until the stored flush id shows it was applied
+        ledger.invalidate(Set.of(42L));
+        assertEquals(before - 2, ledger.available(42L).await().indefinitely());
+        Mockito.when(repository.findInventory(42L)).thenReturn(Uni.createFrom().item(
+            new Document("quantity", 8).append(ProductRepository.LEDGER_FLUSH, flushId.getValue())));
+        ledger.invalidate(Set.of(42L));
+        assertEquals(before - 2, ledger.available(42L).await().indefinitely());
+
+        ledger.flush().await().indefinitely();
+        Mockito.verify(repository, Mockito.times(2)).incrementQuantities(eq(Map.of(42L, -2L)), eq(flushId.getValue()));
+        ledger.flush().await().indefinitely();
+        Mockito.verify(repository, Mockito.times(2)).incrementQuantities(anyMap(), anyString());
+    }
+
+    @Test
+    void cancelledCallerDoesNotCancelSharedViewLoad() throws Exception {
+        CompletableFuture<Document> stored = new CompletableFuture<>();
+        Mockito.when(repository.findInventory(42L)).thenReturn(Uni.createFrom().completionStage(stored));
+
+        Cancellable cancelled = ledger.available(42L).subscribe().with(quantity -> { });
+        CompletableFuture<Long> waiting = ledger.available(42L).subscribeAsCompletionStage();
+        cancelled.cancel();
+        stored.complete(new Document("quantity", 10));
+
+        long available = waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(available, ledger.available(42L).await().indefinitely());
+        Mockito.verify(repository, Mockito.times(1)).findInventory(42L);
+    }
+}
@@ -0,0 +1,44 @@
+package org.quarkus.assignment.load;
+
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.SortOrder;
+import org.quarkus.assignment.persistence.BlockingProductRepository;
+import org.quarkus.assignment.persistence.ProductRepository;
+
+import java.util.List;
+
+/**
+ * {@link BlockingProductRepository} stand-in reading the same products as an {@link InMemoryProductRepository}, so
+ * {@code app.execution.mode=virtual-threads} can be load-tested without MongoDB and sees the writes made through the
+ * reactive repository. Install it with {@code QuarkusMock.installMockForType(repo, BlockingProductRepository.class)}.
+ * <p>
+ * Covers the reads {@code BlockingProductService} makes: lookup by id, full, paged and price-sorted listings.
+ */
+public class InMemoryBlockingProductRepository extends BlockingProductRepository {
+
+    private final InMemoryProductRepository products;
+
+    public InMemoryBlockingProductRepository(InMemoryProductRepository products) {
+        this.products = products;
+    }
+
+    @Override
+    public Product findById(Long id) {
+        return products.findById(id).await().indefinitely();
+    }
+
+    @Override
+    public List<Product> listAll() {
+        return products.listAll().await().indefinitely();
+    }
+
+    @Override
+    public List<Product> findAfter(Long after, int limit) {
+        return products.page(after, limit);
+    }
+
+    @Override
+    public List<Product> listByPrice(SortOrder order) {
+        return products.findAll(ProductRepository.byPrice(order)).list().await().indefinitely();
+    }
+}
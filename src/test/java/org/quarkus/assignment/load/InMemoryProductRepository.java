@@ -0,0 +1,203 @@
+package org.quarkus.assignment.load;
+
+import com.mongodb.bulk.BulkWriteInsert;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import io.quarkus.mongodb.panache.reactive.ReactivePanacheQuery;
+import io.quarkus.panache.common.Sort;
+import io.smallrye.mutiny.Uni;
+import org.bson.BsonInt64;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.persistence.ProductRepository;
+import org.quarkus.assignment.util.ProductETags;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link ProductRepository} stand-in that keeps products in memory, so the HTTP endpoints can be load-tested
+ * without MongoDB. Install it with {@code QuarkusMock.installMockForType(repo, ProductRepository.class)}.
+ * <p>
+ * Covers what the load-tested endpoints use: lookups by id (single or batched), full and price-sorted listings,
+ * PUT patches and reservations. Every other repository method fails as it would without a database. Stored products are never
+ * handed out; callers get copies, as they would get freshly decoded documents from Mongo.
+ */
+public class InMemoryProductRepository extends ProductRepository {
+
+    private static final Comparator<Product> BY_PRICE = Comparator
+            .comparing((Product p) -> p.getPrice() != null ? p.getPrice() : Double.NEGATIVE_INFINITY)
+            .thenComparing(Product::getId);
+
+    private final ConcurrentSkipListMap<Long, Product> products = new ConcurrentSkipListMap<>();
+
+    /**
+     * Fills the store with deterministic products {@code 1..count}.
+     * @param count number of products
+     * @param quantity stock of each product
+     */
+    public void seed(int count, int quantity) {
+        for (int i = 1; i <= count; i++) {
+            Product p = new Product();
+            p.setId((long) i);
+            p.setName("Product " + i);
+            p.setDescription("Load test product " + i);
+            p.setPrice(1.0 + (i % 1000) * 0.25);
+            p.setQuantity(quantity);
+            p.setVersion(1L);
+            products.put(p.getId(), p);
+        }
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    @Override
+    public Uni<Product> findById(Long id) {
+        Product p = products.get(id);
+        return Uni.createFrom().item(p != null ? copy(p) : null);
+    }
+
+    @Override
+    public Uni<List<Product>> listAll() {
+        return Uni.createFrom().item(() -> products.values().stream().map(InMemoryProductRepository::copy).toList());
+    }
+
+    /**
+     * Reads one page ordered by id, for {@link InMemoryBlockingProductRepository}.
+     * @param after only products with a greater id are returned; null starts at the beginning
+     * @param limit page size
+     * @return copies of the products of the page
+     */
+    List<Product> page(Long after, int limit) {
+        return (after == null ? products : products.tailMap(after, false)).values().stream()
+                .limit(limit)
+                .map(InMemoryProductRepository::copy)
+                .toList();
+    }
+
+    /** Only the price sorts of {@link ProductRepository#byPrice} are supported, and only {@code list()} on the result. */
+    @Override
+    @SuppressWarnings("unchecked")
+    public ReactivePanacheQuery<Product> findAll(Sort sort) {
+        Sort.Column first = sort.getColumns().get(0);
+        if (!first.getName().equals("price")) {
+            throw new UnsupportedOperationException("In-memory query supports price sorts only");
+        }
+        Comparator<Product> order = first.getDirection() == Sort.Direction.Descending ? BY_PRICE.reversed() : BY_PRICE;
+        return listQuery(() -> {
+            List<Product> sorted = new ArrayList<>(products.size());
+            products.values().forEach(p -> sorted.add(copy(p)));
+            sorted.sort(order);
+            return sorted;
+        });
+    }
+
+    /** Only the {@code _id in ?1} lookup of the batch loader is supported, and only {@code list()} on the result. */
+    @Override
+    public ReactivePanacheQuery<Product> find(String query, Object... params) {
+        if (!query.equals("_id in ?1")) {
+            throw new UnsupportedOperationException("In-memory query supports _id in ?1 only, not " + query);
+        }
+        Collection<?> ids = (Collection<?>) params[0];
+        return listQuery(() -> {
+            List<Product> found = new ArrayList<>(ids.size());
+            for (Object id : ids) {
+                Product p = products.get(((Number) id).longValue());
+                if (p != null) {
+                    found.add(copy(p));
+                }
+            }
+            return found;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private ReactivePanacheQuery<Product> listQuery(Supplier<List<Product>> list) {
+        return (ReactivePanacheQuery<Product>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {ReactivePanacheQuery.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("list")) {
+                        throw new UnsupportedOperationException("In-memory query supports list() only, not " + method.getName());
+                    }
+                    return Uni.createFrom().item(list);
+                });
+    }
+
+    @Override
+    public Uni<BulkWriteResult> upsertFields(List<Product> patches) {
+        int matched = 0;
+        List<BulkWriteUpsert> upserts = new ArrayList<>();
+        for (int i = 0; i < patches.size(); i++) {
+            Product patch = patches.get(i);
+            boolean[] existed = new boolean[1];
+            products.compute(patch.getId(), (id, current) -> {
+                existed[0] = current != null;
+                Product next = current != null ? copy(current) : new Product();
+                next.setId(id);
+                if (patch.getName() != null) {
+                    next.setName(patch.getName());
+                }
+                if (patch.getDescription() != null) {
+                    next.setDescription(patch.getDescription());
+                }
+                if (patch.getPrice() != null) {
+                    next.setPrice(patch.getPrice());
+                }
+                if (patch.getQuantity() != null) {
+                    next.setQuantity(patch.getQuantity());
+                }
+                next.setVersion(current != null && current.getVersion() != null ? current.getVersion() + 1 : ProductETags.firstVersion());
+                return next;
+            });
+            if (existed[0]) {
+                matched++;
+            } else {
+                upserts.add(new BulkWriteUpsert(i, new BsonInt64(patch.getId())));
+            }
+        }
+        return Uni.createFrom().item(BulkWriteResult.acknowledged(0, matched, 0, matched, upserts, List.<BulkWriteInsert>of()));
+    }
+
+    @Override
+    public Uni<Product> reserve(long id, int count) {
+        Product[] reserved = new Product[1];
+        products.computeIfPresent(id, (key, current) -> {
+            if (current.getQuantity() == null || current.getQuantity() < count) {
+                return current;
+            }
+            Product next = copy(current);
+            next.setQuantity(current.getQuantity() - count);
+            next.setVersion(current.getVersion() + 1);
+            reserved[0] = copy(next);
+            return next;
+        });
+        return Uni.createFrom().item(reserved[0]);
+    }
+
+    @Override
+    public Uni<Void> release(long id, int count) {
+        products.computeIfPresent(id, (key, current) -> {
+            Product next = copy(current);
+            next.setQuantity(current.getQuantity() + count);
+            next.setVersion(current.getVersion() + 1);
+            return next;
+        });
+        return Uni.createFrom().voidItem();
+    }
+
+    private static Product copy(Product p) {
+        Product c = new Product();
+        c.setId(p.getId());
+        c.setName(p.getName());
+        c.setDescription(p.getDescription());
+        c.setPrice(p.getPrice());
+        c.setQuantity(p.getQuantity());
+        c.setVersion(p.getVersion());
+        return c;
+    }
+}
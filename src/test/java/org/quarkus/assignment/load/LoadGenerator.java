@@ -0,0 +1,187 @@
+package org.quarkus.assignment.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * Open-loop HTTP load generator: requests are started on a fixed schedule ({@code rate} per second) whether or not
+ * earlier ones have finished, and each latency is measured from the request's scheduled start. A slow server
+ * therefore shows up as growing latency instead of a silently lower request rate (no coordinated omission).
+ * <p>
+ * Operations are drawn from a weighted mix with a seeded {@link Random}, so two runs issue the same sequence.
+ * Latencies are recorded in one HdrHistogram per operation; requests scheduled during the warmup are not recorded.
+ */
+final class LoadGenerator {
+
+    /** Latencies above this are recorded as this value. */
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /** One kind of request in the mix. */
+    record Operation(String name, int weight, Function<Random, HttpRequest> request, IntPredicate expectedStatus) {
+    }
+
+    /** Recorded results of one operation (or of all of them). */
+    static final class Stats {
+        final String name;
+        final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+        final LongAdder errors = new LongAdder();
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        void record(long latencyNanos, boolean error) {
+            latencies.recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+            if (error) {
+                errors.increment();
+            }
+        }
+    }
+
+    private final HttpClient client;
+    private final List<Operation> operations;
+    private final int totalWeight;
+    private final long seed;
+
+    LoadGenerator(HttpClient client, List<Operation> operations, long seed) {
+        this.client = client;
+        this.operations = operations;
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        this.seed = seed;
+    }
+
+    /**
+     * Runs the workload and waits for every started request to finish.
+     * @param ratePerSecond request arrival rate
+     * @param warmup time before recording starts
+     * @param duration recorded time
+     * @return results per operation, in mix order, followed by the total
+     */
+    Report run(double ratePerSecond, Duration warmup, Duration duration) throws InterruptedException {
+        Map<String, Stats> byOperation = new LinkedHashMap<>();
+        operations.forEach(op -> byOperation.put(op.name(), new Stats(op.name())));
+        Stats total = new Stats("all");
+        Random random = new Random(seed);
+        AtomicLong inFlight = new AtomicLong();
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long start = System.nanoTime();
+        long recordFrom = start + warmup.toNanos();
+        long end = recordFrom + duration.toNanos();
+        long late = 0;
+        for (long i = 0; ; i++) {
+            long scheduled = start + (long) (i * intervalNanos);
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (wait < -TimeUnit.MILLISECONDS.toNanos(1) && scheduled >= recordFrom) {
+                late++;
+            }
+            Operation op = pick(random);
+            HttpRequest request = op.request().apply(random);
+            boolean recorded = scheduled >= recordFrom;
+            inFlight.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                if (recorded) {
+                    long latency = System.nanoTime() - scheduled;
+                    boolean error = failure != null || !op.expectedStatus().test(response.statusCode());
+                    byOperation.get(op.name()).record(latency, error);
+                    total.record(latency, error);
+                }
+                inFlight.decrementAndGet();
+            });
+        }
+        long drainDeadline = System.nanoTime() + MAX_LATENCY_NANOS;
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        List<Stats> stats = new ArrayList<>(byOperation.values());
+        stats.add(total);
+        return new Report(ratePerSecond, warmup, duration, seed, operations, stats, late, inFlight.get());
+    }
+
+    private Operation pick(Random random) {
+        int r = random.nextInt(totalWeight);
+        for (Operation op : operations) {
+            r -= op.weight();
+            if (r < 0) {
+                return op;
+            }
+        }
+        throw new IllegalStateException("empty mix");
+    }
+
+    /** Results of one run; {@link #write} renders them in a stable, diffable layout. */
+    record Report(double ratePerSecond, Duration warmup, Duration duration, long seed, List<Operation> mix,
+                  List<Stats> stats, long lateStarts, long unfinished) {
+
+        Stats total() {
+            return stats.get(stats.size() - 1);
+        }
+
+        /**
+         * Writes the summary table to {@code file} and the full latency distribution of all requests, in
+         * HdrHistogram's percentile format, next to it with an {@code .hgrm} extension.
+         * @param file report file
+         * @param context additional {@code key=value} lines describing the setup
+         */
+        void write(Path file, Map<String, Object> context) throws IOException {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+                out.println("# products load test");
+                out.printf(Locale.ROOT, "rate.per.second=%.0f%n", ratePerSecond);
+                out.println("warmup.seconds=" + warmup.toSeconds());
+                out.println("duration.seconds=" + duration.toSeconds());
+                out.println("seed=" + seed);
+                out.println("mix=" + String.join(",", mix.stream().map(op -> op.name() + ":" + op.weight()).toList()));
+                context.forEach((key, value) -> out.println(key + "=" + value));
+                out.println("late.starts=" + lateStarts);
+                out.println("unfinished=" + unfinished);
+                out.println();
+                out.printf(Locale.ROOT, "%-14s %10s %8s %13s %9s %9s %9s %9s%n",
+                        "operation", "requests", "errors", "throughput/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+                double seconds = duration.toNanos() / 1e9;
+                for (Stats s : stats) {
+                    Histogram h = s.latencies;
+                    out.printf(Locale.ROOT, "%-14s %10d %8d %13.1f %9.3f %9.3f %9.3f %9.3f%n",
+                            s.name, h.getTotalCount(), s.errors.sum(), h.getTotalCount() / seconds,
+                            millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(99)),
+                            millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue()));
+                }
+            }
+            Path distribution = file.resolveSibling(file.getFileName().toString().replaceFirst("(\\.[^.]*)?$", ".hgrm"));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(distribution), false, "UTF-8")) {
+                total().latencies.outputPercentileDistribution(out, 1e6);
+            }
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+}
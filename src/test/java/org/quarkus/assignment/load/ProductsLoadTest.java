@@ -0,0 +1,130 @@
+package org.quarkus.assignment.load;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusMock;
+import io.quarkus.test.junit.QuarkusTest;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.quarkus.assignment.persistence.BlockingProductRepository;
+import org.quarkus.assignment.persistence.ProductRepository;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mixed read/write load against the real HTTP endpoints, backed by {@link InMemoryProductRepository} and
+ * {@link InMemoryBlockingProductRepository} instead of MongoDB, so both values of {@code app.execution.mode} run
+ * against the same data. Runs in the configured mode; {@link VirtualThreadsLoadTest} repeats it in virtual-thread mode
+ * and each run writes its own report. Tagged {@code load}, so it only runs with {@code -Pload-test}; see the README
+ * for the knobs.
+ */
+@QuarkusTest
+@Tag("load")
+class ProductsLoadTest {
+
+    private static final String DEFAULT_MIX = "get-by-id:40,availability:25,list-all:5,sorted-price:10,update:10,reserve:10";
+
+    @TestHTTPResource("/products")
+    URI products;
+
+    @ConfigProperty(name = "app.execution.mode", defaultValue = "reactive")
+    String executionMode;
+
+    @ConfigProperty(name = "app.products.batch-loader.enabled", defaultValue = "false")
+    boolean batchLoader;
+
+    InMemoryProductRepository repository;
+    int productCount;
+
+    @BeforeEach
+    void installInMemoryStore() {
+        productCount = Integer.getInteger("load.products", 1000);
+        repository = new InMemoryProductRepository();
+        repository.seed(productCount, Integer.MAX_VALUE / 2);
+        QuarkusMock.installMockForType(repository, ProductRepository.class);
+        QuarkusMock.installMockForType(new InMemoryBlockingProductRepository(repository), BlockingProductRepository.class);
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        double rate = Double.parseDouble(System.getProperty("load.rate", "500"));
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration", 20));
+        long seed = Long.getLong("load.seed", 42);
+        Path reportFile = Path.of(System.getProperty("load.report", "target/load-report-" + executionMode + ".txt"));
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        LoadGenerator.Report report = new LoadGenerator(client, mix(System.getProperty("load.mix", DEFAULT_MIX)), seed)
+            .run(rate, warmup, duration);
+
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("products", productCount);
+        context.put("execution.mode", executionMode);
+        context.put("batch.loader", batchLoader);
+        report.write(reportFile, context);
+
+        assertEquals(0, report.unfinished(), "requests still running after the drain timeout");
+        assertTrue(report.total().latencies.getTotalCount() > 0, "no request was recorded");
+        assertEquals(0, report.total().errors.sum(), "unexpected statuses or failures, see " + reportFile);
+    }
+
+    private List<LoadGenerator.Operation> mix(String spec) {
+        List<LoadGenerator.Operation> operations = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            operations.add(operation(parts[0], Integer.parseInt(parts[1])));
+        }
+        return operations;
+    }
+
+    private LoadGenerator.Operation operation(String name, int weight) {
+        IntPredicate ok = status -> status == 200;
+        Function<Random, HttpRequest> request = switch (name) {
+            case "get-by-id" -> random -> get("?id=" + randomId(random));
+            case "availability" -> random -> get("/" + randomId(random) + "/availability?count=1");
+            case "list-all" -> random -> get("");
+            case "sorted-price" -> random -> get("/sorted/price?order=" + (random.nextBoolean() ? "ASC" : "DESC"));
+            case "update" -> random -> {
+                long id = randomId(random);
+                String body = String.format(Locale.ROOT, "{\"id\":%d,\"price\":%.2f}", id, 1 + random.nextInt(10_000) / 100.0);
+                return HttpRequest.newBuilder(URI.create(products + "/" + id))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            };
+            case "reserve" -> random -> HttpRequest.newBuilder(URI.create(products + "/" + randomId(random) + "/reserve?count=1"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+            default -> throw new IllegalArgumentException("Unknown operation " + name);
+        };
+        return new LoadGenerator.Operation(name, weight, request, "reserve".equals(name) ? status -> status == 200 || status == 409 : ok);
+    }
+
+    private HttpRequest get(String suffix) {
+        return HttpRequest.newBuilder(URI.create(products + suffix)).GET().build();
+    }
+
+    private long randomId(Random random) {
+        return 1 + random.nextInt(productCount);
+    }
+}
@@ -0,0 +1,25 @@
+package org.quarkus.assignment.load;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Tag;
+
+import java.util.Map;
+
+/**
+ * {@link ProductsLoadTest} with {@code app.execution.mode=virtual-threads}, so one {@code -Pload-test} run reports
+ * throughput and latency of both modes under the same load, in {@code target/load-report-<mode>.txt}.
+ */
+@QuarkusTest
+@Tag("load")
+@TestProfile(VirtualThreadsLoadTest.VirtualThreads.class)
+class VirtualThreadsLoadTest extends ProductsLoadTest {
+
+    public static class VirtualThreads implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("app.execution.mode", "virtual-threads");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.quarkus.assignment.search;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.storage.ProductStore;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.enabled = true;
+        index.maxPrefixExpansions = 64;
+        index.putAll(List.of(
+            product(1L, "Red Apple", "Crisp and sweet"),
+            product(2L, "Green Apple", "Sour apple for baking"),
+            product(3L, "Apple Pie", "Baked with red apples"),
+            product(4L, "Banana", "Ripe yellow fruit")));
+    }
+
+    @Test
+    void ranksByWeightAndKeepsOnlyTopK() {
+        ProductSearchIndex.Result result = index.search("apple", 2);
+        assertEquals(3, result.getTotalMatches());
+        // Product 2 mentions apple in name and description; 1 and 3 tie on the name, lower id first
+        assertEquals(List.of(2L, 1L), ids(result));
+    }
+
+    @Test
+    void requiresEveryTerm_andExpandsPrefixes() {
+        assertEquals(List.of(1L, 3L), ids(index.search("RED appl", 10)));
+        assertEquals(List.of(4L), ids(index.search("ban", 10)));
+        assertEquals(0, index.search("red banana", 10).getTotalMatches());
+        assertEquals(0, index.search("  ,; ", 10).getTotalMatches());
+    }
+
+    @Test
+    void followsPatchesAndDeletes() {
+        Product rename = new Product(); rename.setId(4L); rename.setName("Plantain");
+        index.patchAll(List.of(rename));
+        assertEquals(0, index.search("banana", 10).getTotalMatches());
+        // Unpatched description is kept
+        assertEquals(List.of(4L), ids(index.search("plantain yellow", 10)));
+
+        index.removeAll(List.of(2L));
+        assertEquals(0, index.search("sour", 10).getTotalMatches());
+        assertEquals(List.of(1L, 3L), ids(index.search("apple", 10)));
+    }
+
+    @Test
+    void olderVersionsAndRefreshesOvertakenByLocalWritesAreIgnored() {
+        index.putAll(List.of(versioned(product(4L, "Plantain", "Ripe yellow fruit"), 5L)));
+        index.putAll(List.of(versioned(product(4L, "Banana", "Ripe yellow fruit"), 4L)));
+        assertEquals(List.of(4L), ids(index.search("plantain", 10)));
+
+        // A refresh reads the old text, then a local patch lands before the read completes
+        CompletableFuture<List<Product>> read = new CompletableFuture<>();
+        index.store = Mockito.mock(ProductStore.class);
+        Mockito.when(index.store.findByIds(List.of(1L))).thenReturn(Uni.createFrom().completionStage(read));
+        CompletableFuture<Void> refreshed = index.refresh(List.of(1L)).subscribeAsCompletionStage();
+        Product rename = new Product(); rename.setId(1L); rename.setName("Quince");
+        index.patchAll(List.of(rename));
+        read.complete(List.of(versioned(product(1L, "Red Apple", "Crisp and sweet"), 7L)));
+
+        assertTrue(refreshed.isDone());
+        assertEquals(List.of(1L), ids(index.search("quince", 10)));
+    }
+
+    @Test
+    void patchDuringRebuildRereadsIdsNotStreamedYet() {
+        AtomicReference<MultiEmitter<? super Product>> stream = new AtomicReference<>();
+        index.store = Mockito.mock(ProductStore.class);
+        Mockito.when(index.store.streamAll()).thenReturn(Multi.createFrom().<Product>emitter(stream::set));
+        Mockito.when(index.store.findByIds(List.of(4L)))
+                .thenReturn(Uni.createFrom().item(List.of(product(4L, "Plantain", "Ripe yellow fruit"))));
+        CompletableFuture<Integer> rebuilt = index.rebuild().subscribeAsCompletionStage();
+
+        Product rename = new Product(); rename.setId(4L); rename.setName("Plantain");
+        index.patchAll(List.of(rename));
+        // The stream then delivers the document as it was before the patch
+        stream.get().emit(product(4L, "Banana", "Ripe yellow fruit"));
+        stream.get().complete();
+
+        assertTrue(rebuilt.isDone());
+        assertEquals(0, index.search("banana", 10).getTotalMatches());
+        assertEquals(List.of(4L), ids(index.search("plantain yellow", 10)));
+    }
+
+    private static List<Long> ids(ProductSearchIndex.Result result) {
+        return result.getHits().stream().map(ProductSearchIndex.Hit::getId).toList();
+    }
+
+    private static Product product(long id, String name, String description) {
+        Product p = new Product(); p.setId(id); p.setName(name); p.setDescription(description);
+        return p;
+    }
+
+    private static Product versioned(Product p, long version) {
+        p.setVersion(version);
+        return p;
+    }
+}
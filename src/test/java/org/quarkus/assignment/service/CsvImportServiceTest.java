@@ -0,0 +1,71 @@
+package org.quarkus.assignment.service;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.quarkus.assignment.dto.CsvImportReport;
+import org.quarkus.assignment.dto.CsvRowError;
+import org.quarkus.assignment.dto.SummaryDto;
+import org.quarkus.assignment.model.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+class CsvImportServiceTest {
+
+    @Inject
+    CsvImportService importService;
+
+    @InjectMock
+    ProductService productService;
+
+    @ConfigProperty(name = "app.csv.path")
+    String csvPath;
+
+    @Test
+    void importConfiguredFile_parsesChunksInParallelAndReportsRowErrors() throws Exception {
+        StringBuilder csv = new StringBuilder("id,name,description,price,quantity\r\n");
+        for (int i = 1; i <= 20; i++) {
+            csv.append(i).append(",Item ").append(i).append(",\"desc, with \"\"quotes\"\"\",").append(i * 1.5).append(',').append(i).append("\r\n");
+        }
+        csv.append("21,Broken,,not-a-number,1\n");
+        csv.append("22,,missing name,1.0,1\n");
+        csv.append("23,Last,,2.0,3");
+        Path path = Path.of(csvPath);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, csv.toString(), StandardCharsets.UTF_8);
+
+        List<Product> written = new ArrayList<>();
+        Mockito.when(productService.createProducts(Mockito.anyList())).thenAnswer(inv -> {
+            List<Product> batch = inv.getArgument(0);
+            synchronized (written) {
+                written.addAll(batch);
+            }
+            return Uni.createFrom().item(SummaryDto.builder().created(batch.size()).total(batch.size()).build());
+        });
+
+        CsvImportReport report = importService.importConfiguredFile();
+
+        assertEquals(23, report.getRows());
+        assertEquals(2, report.getInvalidRows());
+        assertEquals(21, report.getSummary().getCreated());
+        assertEquals(21, report.getSummary().getTotal());
+        assertEquals(List.of(22L, 23L), report.getErrors().stream().map(CsvRowError::getLine).collect(Collectors.toList()));
+        assertEquals(21, written.size());
+        assertEquals(Set.of("desc, with \"quotes\""), written.stream().filter(p -> p.getId() <= 20).map(Product::getDescription).collect(Collectors.toSet()));
+        // chunk size in the test profile forces several chunks, hence several write batches
+        Mockito.verify(productService, Mockito.atLeast(2)).createProducts(Mockito.anyList());
+    }
+}
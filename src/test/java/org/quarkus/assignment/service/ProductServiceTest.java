@@ -1,21 +1,43 @@
 package org.quarkus.assignment.service;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.bulk.WriteConcernError;
 import io.quarkus.mongodb.panache.reactive.ReactivePanacheQuery;
 import io.quarkus.panache.common.Sort;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.ClientErrorException;
 import jakarta.ws.rs.NotFoundException;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.quarkus.assignment.cache.ProductCache;
+import org.quarkus.assignment.dto.AvailabilityResponse;
+import org.quarkus.assignment.dto.ProductCountRequest;
 import org.quarkus.assignment.dto.SummaryDto;
 import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.ProductFilter;
+import org.quarkus.assignment.model.ProductSortField;
 import org.quarkus.assignment.model.SortOrder;
 import org.quarkus.assignment.persistence.ProductRepository;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,13 +52,17 @@ class ProductServiceTest {
     @InjectMock
     ProductRepository repository;
 
+    @Inject
+    ProductCache cache;
+
+    @BeforeEach
+    void clearCache() {
+        cache.invalidateAll();
+    }
+
     @Test
     void createProducts_countsCreatedAndDuplicates() {
-        Product existing = new Product(); existing.setId(1L);
-        ReactivePanacheQuery<Product> query = Mockito.mock(ReactivePanacheQuery.class);
-        Mockito.when(repository.find(eq("_id in ?1"), any(Object[].class))).thenReturn(query);
-        Mockito.when(query.list()).thenReturn(Uni.createFrom().item(List.of(existing)));
-        Mockito.when(repository.persist(any(List.class))).thenReturn(Uni.createFrom().voidItem());
+        Mockito.when(repository.insertUnordered(any(List.class))).thenReturn(Uni.createFrom().item(1));
 
         Product p1 = new Product(); p1.setId(1L);
         Product p2 = new Product(); p2.setId(2L);
@@ -45,15 +71,14 @@ class ProductServiceTest {
         assertEquals(1, summary.getDuplicates());
         assertEquals(0, summary.getUpdated());
         assertEquals(2, summary.getTotal());
+        Mockito.verify(repository, Mockito.never()).find(eq("_id in ?1"), any(Object[].class));
     }
 
     @Test
     void updateProducts_countsCreatedAndUpdated() {
-        Product existing = new Product(); existing.setId(1L);
-        ReactivePanacheQuery<Product> query = Mockito.mock(ReactivePanacheQuery.class);
-        Mockito.when(repository.find(eq("_id in ?1"), any(Object[].class))).thenReturn(query);
-        Mockito.when(query.list()).thenReturn(Uni.createFrom().item(List.of(existing)));
-        Mockito.when(repository.persistOrUpdate(any(List.class))).thenReturn(Uni.createFrom().voidItem());
+        BulkWriteResult result = BulkWriteResult.acknowledged(0, 1, 0, 1,
+                List.of(new BulkWriteUpsert(1, new BsonInt64(2L))), List.of());
+        Mockito.when(repository.replaceAll(any(List.class))).thenReturn(Uni.createFrom().item(result));
 
         Product p1 = new Product(); p1.setId(1L);
         Product p2 = new Product(); p2.setId(2L);
@@ -65,18 +90,97 @@ class ProductServiceTest {
     }
 
     @Test
-    void patchProducts_mergesAndCreates() {
-        Product existing = new Product(); existing.setId(1L); existing.setName("Old");
-        ReactivePanacheQuery<Product> query = Mockito.mock(ReactivePanacheQuery.class);
-        Mockito.when(repository.find(eq("_id in ?1"), any(Object[].class))).thenReturn(query);
-        Mockito.when(query.list()).thenReturn(Uni.createFrom().item(List.of(existing)));
-        Mockito.when(repository.persistOrUpdate(any(List.class))).thenReturn(Uni.createFrom().voidItem());
+    void patchProducts_countsFromBulkWriteResult() {
+        BulkWriteResult result = BulkWriteResult.acknowledged(0, 1, 0, 1,
+                List.of(new BulkWriteUpsert(1, new BsonInt64(3L))), List.of());
+        Mockito.when(repository.upsertFields(any(List.class))).thenReturn(Uni.createFrom().item(result));
 
         Product patch1 = new Product(); patch1.setId(1L); patch1.setName("New");
         Product patch2 = new Product(); patch2.setId(3L); patch2.setName("X");
         SummaryDto summary = service.patchProducts(List.of(patch1, patch2)).await().indefinitely();
         assertEquals(1, summary.getCreated());
         assertEquals(1, summary.getUpdated());
+        assertEquals(2, summary.getTotal());
+        Mockito.verify(repository, Mockito.never()).find(eq("_id in ?1"), any(Object[].class));
+    }
+
+    @Test
+    void toSetUpdate_setsOnlyNonNullFieldsAndBumpsVersion() {
+        Product patch = new Product(); patch.setId(1L); patch.setName("New"); patch.setQuantity(2); patch.setVersion(7L);
+        BsonDocument update = ProductRepository.toSetUpdate(patch).toBsonDocument();
+        assertEquals(new BsonDocument("$set", new BsonDocument("name", new BsonString("New")).append("quantity", new BsonInt32(2)))
+                .append("$inc", new BsonDocument("version", new BsonInt64(1))), update);
+
+        Product empty = new Product(); empty.setId(2L);
+        assertEquals(new BsonDocument("$inc", new BsonDocument("version", new BsonInt64(1))),
+                ProductRepository.toSetUpdate(empty).toBsonDocument());
+    }
+
+    @Test
+    void insertUnordered_recoversOnlyFromPureDuplicateKeyFailures() {
+        BulkWriteResult result = BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of());
+        BulkWriteError duplicate = new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0);
+        WriteConcernError notDurable = new WriteConcernError(64, "WriteConcernFailed", "waiting for replication timed out", new BsonDocument());
+        ServerAddress server = new ServerAddress();
+
+        assertTrue(ProductRepository.onlyDuplicateKeys(new MongoBulkWriteException(result, List.of(duplicate), null, server, Set.of())));
+        assertFalse(ProductRepository.onlyDuplicateKeys(new MongoBulkWriteException(result, List.of(), notDurable, server, Set.of())));
+        assertFalse(ProductRepository.onlyDuplicateKeys(new MongoBulkWriteException(result, List.of(duplicate), notDurable, server, Set.of())));
+        assertFalse(ProductRepository.onlyDuplicateKeys(new MongoBulkWriteException(result,
+                List.of(duplicate, new BulkWriteError(121, "validation failed", new BsonDocument(), 1)), null, server, Set.of())));
+    }
+
+    @Test
+    void pipelines_quoteValuesAndDeriveVersionFromStoredOne() {
+        Product product = new Product(); product.setId(1L); product.setName("$price"); product.setPrice(2.0);
+        String nextVersion = "version: {$ifNull: [{$add: ['$version', {$numberLong: '1'}]}, {$numberLong: '5000'}]}";
+        assertEquals(BsonDocument.parse("{$replaceWith: {_id: {$numberLong: '1'}, name: {$literal: '$price'}, description: '$$REMOVE',"
+                + " price: {$literal: 2.0}, quantity: '$$REMOVE', " + nextVersion + "}}"),
+                ProductRepository.toReplacePipeline(product, 5000L).get(0).toBsonDocument());
+        assertEquals(BsonDocument.parse("{$set: {name: {$literal: '$price'}, price: {$literal: 2.0}, " + nextVersion + "}}"),
+                ProductRepository.toUpsertPipeline(product, 5000L).get(0).toBsonDocument());
+    }
+
+    @Test
+    void filterQuery_boundsPriceAndContinuesAfterCursor() {
+        ProductFilter byPrice = ProductFilter.builder()
+            .maxPrice(10d).minQuantity(1).sortBy(ProductSortField.PRICE).order(SortOrder.DESC)
+            .afterPrice(5d).afterId(7L).limit(2).build();
+        BsonDocument query = ProductRepository.toFilterQuery(byPrice).toBsonDocument();
+        assertEquals(BsonDocument.parse("{$and: [{price: {$gte: {$numberDouble: '-Infinity'}}}, {price: {$lte: 10.0}}, {quantity: {$gte: 1}},"
+                + " {$or: [{price: {$lt: 5.0}}, {$and: [{price: 5.0}, {_id: {$lt: {$numberLong: '7'}}}]}]}]}"), query);
+        assertEquals(BsonDocument.parse("{price: -1, _id: -1}"), ProductRepository.toFilterSort(byPrice).toBsonDocument());
+
+        ProductFilter byId = ProductFilter.builder().sortBy(ProductSortField.ID).order(SortOrder.ASC).limit(2).build();
+        assertEquals(new BsonDocument(), ProductRepository.toFilterQuery(byId).toBsonDocument());
+        assertEquals(BsonDocument.parse("{_id: 1}"), ProductRepository.toFilterSort(byId).toBsonDocument());
+    }
+
+    @Test
+    void projection_includesRequestedStoredFieldsAndVersion() {
+        assertEquals(BsonDocument.parse("{name: 1, price: 1, version: 1}"),
+                ProductRepository.toProjection(new LinkedHashSet<>(List.of("id", "name", "price"))).toBsonDocument());
+        assertEquals(BsonDocument.parse("{version: 1}"), ProductRepository.toProjection(Set.of("id")).toBsonDocument());
+    }
+
+    @Test
+    void patchIfVersion_returnsUpdatedOrFailsWith412Or404() {
+        Product updated = new Product(); updated.setId(1L); updated.setVersion(4L);
+        Product current = new Product(); current.setId(2L); current.setVersion(9L);
+        Mockito.when(repository.updateIfVersion(any(Product.class), eq(3L))).thenReturn(Uni.createFrom().item(updated));
+        Mockito.when(repository.updateIfVersion(any(Product.class), eq(5L))).thenReturn(Uni.createFrom().nullItem());
+        Mockito.when(repository.findById(2L)).thenReturn(Uni.createFrom().item(current));
+        Mockito.when(repository.findById(3L)).thenReturn(Uni.createFrom().nullItem());
+
+        Product patch = new Product(); patch.setId(1L);
+        assertEquals(4L, service.patchIfVersion(patch, 3L).await().indefinitely().getVersion());
+
+        Product stale = new Product(); stale.setId(2L);
+        ClientErrorException conflict = assertThrows(ClientErrorException.class, () -> service.patchIfVersion(stale, 5L).await().indefinitely());
+        assertEquals(412, conflict.getResponse().getStatus());
+
+        Product missing = new Product(); missing.setId(3L);
+        assertThrows(NotFoundException.class, () -> service.patchIfVersion(missing, 5L).await().indefinitely());
     }
 
     @Test
@@ -97,6 +201,82 @@ class ProductServiceTest {
         assertEquals(10, service.getAvailableQuantity(5L).await().indefinitely());
     }
 
+    @Test
+    void getAvailability_readsProductOnce() {
+        Product p = new Product(); p.setId(6L); p.setQuantity(4);
+        Mockito.when(repository.findById(6L)).thenReturn(Uni.createFrom().item(p));
+
+        AvailabilityResponse availability = service.getAvailability(6L, 5).await().indefinitely();
+        assertFalse(availability.isAvailable());
+        assertEquals(4, availability.getAvailableQuantity());
+        Mockito.verify(repository, Mockito.times(1)).findById(6L);
+    }
+
+    @Test
+    void getProductById_cachesUntilWriteInvalidates() {
+        Product p = new Product(); p.setId(7L); p.setName("Cached");
+        Mockito.when(repository.findById(7L)).thenReturn(Uni.createFrom().item(p));
+        Mockito.when(repository.deleteById(7L)).thenReturn(Uni.createFrom().item(true));
+
+        assertSame(p, service.getProductById(7L).await().indefinitely());
+        assertSame(p, service.getProductById(7L).await().indefinitely());
+        Mockito.verify(repository, Mockito.times(1)).findById(7L);
+        assertTrue(service.getCacheStats().getHits() >= 1);
+
+        service.deleteByIdOrThrow(7L).await().indefinitely();
+        service.getProductById(7L).await().indefinitely();
+        Mockito.verify(repository, Mockito.times(2)).findById(7L);
+    }
+
+    @Test
+    void productCache_cancelledCallerDoesNotCancelSharedLoad() {
+        Product p = new Product(); p.setId(11L);
+        CompletableFuture<Product> load = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+        LongFunction<Uni<Product>> loader = key -> {
+            loads.incrementAndGet();
+            return Uni.createFrom().completionStage(load);
+        };
+
+        Cancellable cancelled = cache.get(11L, loader).subscribe().with(item -> { });
+        CompletableFuture<Product> waiting = cache.get(11L, loader).subscribeAsCompletionStage();
+        cancelled.cancel();
+        load.complete(p);
+
+        assertSame(p, waiting.join());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void reserve_returnsRemainingOrExplainsFailure() {
+        Product after = new Product(); after.setId(8L); after.setQuantity(2);
+        Product existing = new Product(); existing.setId(9L); existing.setQuantity(1);
+        Mockito.when(repository.reserve(8L, 3)).thenReturn(Uni.createFrom().item(after));
+        Mockito.when(repository.reserve(9L, 3)).thenReturn(Uni.createFrom().nullItem());
+        Mockito.when(repository.findById(9L)).thenReturn(Uni.createFrom().item(existing));
+        Mockito.when(repository.reserve(10L, 3)).thenReturn(Uni.createFrom().nullItem());
+        Mockito.when(repository.findById(10L)).thenReturn(Uni.createFrom().nullItem());
+
+        assertEquals(2, service.reserve(8L, 3).await().indefinitely().getRemainingQuantity());
+        ClientErrorException conflict = assertThrows(ClientErrorException.class, () -> service.reserve(9L, 3).await().indefinitely());
+        assertEquals(409, conflict.getResponse().getStatus());
+        assertThrows(NotFoundException.class, () -> service.reserve(10L, 3).await().indefinitely());
+    }
+
+    @Test
+    void reserveAll_releasesTakenStockWhenOneEntryFails() {
+        Product after = new Product(); after.setId(8L); after.setQuantity(2);
+        Product existing = new Product(); existing.setId(9L); existing.setQuantity(0);
+        Mockito.when(repository.reserve(8L, 1)).thenReturn(Uni.createFrom().item(after));
+        Mockito.when(repository.reserve(9L, 1)).thenReturn(Uni.createFrom().nullItem());
+        Mockito.when(repository.findById(9L)).thenReturn(Uni.createFrom().item(existing));
+        Mockito.when(repository.release(8L, 1)).thenReturn(Uni.createFrom().voidItem());
+
+        List<ProductCountRequest> requests = List.of(new ProductCountRequest(8L, 1), new ProductCountRequest(9L, 1));
+        assertThrows(ClientErrorException.class, () -> service.reserveAll(requests).await().indefinitely());
+        Mockito.verify(repository).release(8L, 1);
+    }
+
     @Test
     void sortedByPrice_usesRepositorySort() {
         ReactivePanacheQuery<Product> query = Mockito.mock(ReactivePanacheQuery.class);
@@ -0,0 +1,94 @@
+package org.quarkus.assignment.service;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import jakarta.inject.Inject;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.quarkus.assignment.dto.InventoryStatsResponse;
+import org.quarkus.assignment.dto.PriceBucketResponse;
+import org.quarkus.assignment.persistence.ProductRepository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+
+@QuarkusTest
+class ProductStatsServiceTest {
+
+    @Inject
+    ProductStatsService service;
+
+    @InjectMock
+    ProductRepository repository;
+
+    @Test
+    void statsPipeline_isOneFacetWithGroupCountAndBucket() {
+        BsonDocument facet = ProductRepository.statsPipeline(5, List.of(0d, 10d)).get(0).toBsonDocument().getDocument("$facet");
+        assertEquals(List.of("totals", "lowStock", "priceHistogram"), List.copyOf(facet.keySet()));
+        assertEquals(BsonDocument.parse("{$match: {$expr: {$lt: [{$ifNull: ['$quantity', 0]}, 5]}}}"), facet.getArray("lowStock").get(0));
+        BsonDocument bucket = facet.getArray("priceHistogram").get(1).asDocument().getDocument("$bucket");
+        assertEquals(BsonDocument.parse("{a: [0.0, 10.0, {$numberDouble: 'Infinity'}]}").get("a"), bucket.get("boundaries"));
+    }
+
+    @Test
+    void getStats_mapsAggregationResultAndCachesPerParameters() {
+        Document result = new Document("totals", List.of(new Document("productCount", 3).append("totalQuantity", 7L)
+                .append("totalStockValue", 55.0).append("minPrice", 5.0).append("maxPrice", 20).append("avgPrice", 10.0)))
+            .append("lowStock", List.of(new Document("count", 2)))
+            .append("priceHistogram", List.of(
+                new Document("_id", ProductRepository.BELOW_FIRST_BUCKET).append("count", 1).append("totalQuantity", 1),
+                new Document("_id", 10.0).append("count", 2).append("totalQuantity", 6)));
+        Mockito.when(repository.aggregateStats(eq(3), anyList())).thenReturn(Uni.createFrom().item(result));
+
+        InventoryStatsResponse stats = service.getStats(3, List.of(10d, 100d)).await().indefinitely();
+        assertEquals(3, stats.getProductCount());
+        assertEquals(7, stats.getTotalQuantity());
+        assertEquals(55.0, stats.getTotalStockValue());
+        assertEquals(20.0, stats.getMaxPrice());
+        assertEquals(2, stats.getLowStockCount());
+        assertEquals(List.of(
+                PriceBucketResponse.builder().upperBound(10d).count(1).totalQuantity(1).build(),
+                PriceBucketResponse.builder().lowerBound(10d).upperBound(100d).count(2).totalQuantity(6).build()),
+            stats.getPriceHistogram());
+
+        assertSame(stats, service.getStats(3, List.of(10d, 100d)).await().indefinitely());
+        Mockito.verify(repository, Mockito.times(1)).aggregateStats(eq(3), anyList());
+        service.getStats(3, List.of(10d)).await().indefinitely();
+        Mockito.verify(repository, Mockito.times(2)).aggregateStats(eq(3), anyList());
+    }
+
+    @Test
+    void getStats_cancelledCallerDoesNotCancelSharedAggregation() throws Exception {
+        CompletableFuture<Document> aggregation = new CompletableFuture<>();
+        Mockito.when(repository.aggregateStats(eq(4), anyList())).thenReturn(Uni.createFrom().completionStage(aggregation));
+
+        Cancellable cancelled = service.getStats(4, List.of(0d)).subscribe().with(stats -> { });
+        CompletableFuture<InventoryStatsResponse> waiting = service.getStats(4, List.of(0d)).subscribeAsCompletionStage();
+        cancelled.cancel();
+        aggregation.complete(new Document("totals", List.of(new Document("productCount", 2).append("totalStockValue", 0.0))));
+
+        assertEquals(2, waiting.get(5, TimeUnit.SECONDS).getProductCount());
+        assertEquals(2, service.getStats(4, List.of(0d)).await().indefinitely().getProductCount());
+        Mockito.verify(repository, Mockito.times(1)).aggregateStats(eq(4), anyList());
+    }
+
+    @Test
+    void getStats_emptyCollection_reportsZeros() {
+        Document empty = new Document("totals", List.of()).append("lowStock", List.of()).append("priceHistogram", List.of());
+        Mockito.when(repository.aggregateStats(eq(1), anyList())).thenReturn(Uni.createFrom().item(empty));
+
+        InventoryStatsResponse stats = service.getStats(1, List.of(0d)).await().indefinitely();
+        assertEquals(0, stats.getProductCount());
+        assertNull(stats.getAvgPrice());
+        assertTrue(stats.getPriceHistogram().isEmpty());
+    }
+}
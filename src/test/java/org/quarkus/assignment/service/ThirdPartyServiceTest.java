@@ -0,0 +1,139 @@
+package org.quarkus.assignment.service;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.faulttolerance.api.CircuitBreakerMaintenance;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quarkus.assignment.support.StubUsersServer;
+import org.quarkus.assignment.thirdparty.ThirdPartyClient;
+import org.quarkus.assignment.thirdparty.UserDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+@QuarkusTestResource(value = StubUsersServer.class, restrictToAnnotatedClass = true)
+class ThirdPartyServiceTest {
+
+    @Inject
+    ThirdPartyService service;
+
+    @Inject
+    ThirdPartyClient client;
+
+    @Inject
+    CircuitBreakerMaintenance breakers;
+
+    @BeforeEach
+    void resetState() {
+        StubUsersServer.reset();
+        service.invalidate();
+        breakers.resetAll();
+    }
+
+    @Test
+    void concurrentMissesShareOneRequest_thenStaleIsServedWhileRevalidating() throws Exception {
+        StubUsersServer.delayMillis = 200;
+
+        List<Uni<List<UserDto>>> calls = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            calls.add(service.getUsers());
+        }
+        List<List<UserDto>> results = Uni.join().all(calls).andFailFast().await().atMost(Duration.ofSeconds(10));
+        assertTrue(results.stream().allMatch(users -> users.size() == 2));
+        assertEquals(1, StubUsersServer.REQUESTS.get());
+
+        // fresh: served from cache
+        service.getUsers().await().atMost(Duration.ofSeconds(1));
+        assertEquals(1, StubUsersServer.REQUESTS.get());
+
+        // expired (ttl 0.3s in this resource): stale value returned at once, one background refresh
+        Thread.sleep(400);
+        long started = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(2, service.getUsers().await().atMost(Duration.ofSeconds(1)).size());
+        }
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() < 200, "stale reads must not wait for upstream");
+        Thread.sleep(400);
+        assertEquals(2, StubUsersServer.REQUESTS.get());
+    }
+
+    @Test
+    void cancelledCallerDoesNotFailConcurrentCallers() throws Exception {
+        StubUsersServer.delayMillis = 200;
+
+        Cancellable cancelled = service.getUsers().subscribe().with(users -> { });
+        CompletableFuture<List<UserDto>> waiting = service.getUsers().subscribeAsCompletionStage();
+        cancelled.cancel();
+
+        assertEquals(2, waiting.get(5, TimeUnit.SECONDS).size());
+        assertEquals(2, service.getUsers().await().atMost(Duration.ofSeconds(1)).size());
+        assertEquals(1, StubUsersServer.REQUESTS.get());
+    }
+
+    @Test
+    void slowAttemptIsHedged() {
+        StubUsersServer.firstRequestDelayMillis = 5000;
+
+        long started = System.nanoTime();
+        List<UserDto> users = client.fetchUsers().await().atMost(Duration.ofSeconds(8));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+
+        assertEquals(2, users.size());
+        assertEquals(2, StubUsersServer.REQUESTS.get());
+        assertTrue(elapsedMillis < 4000, "hedged request should answer before the slow one, took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void stalledBodyFailsWithinTheDeadline_andReleasesTheSharedFetch() {
+        StubUsersServer.bodyStallMillis = 10_000;
+
+        long started = System.nanoTime();
+        assertThrows(RuntimeException.class, () -> service.getUsers().await().atMost(Duration.ofSeconds(8)));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        // hedge delay 1s + request timeout 2s in this resource
+        assertTrue(elapsedMillis < 5000, "stalled bodies must hit the deadline, took " + elapsedMillis + "ms");
+
+        StubUsersServer.bodyStallMillis = 0;
+        assertEquals(2, service.getUsers().await().atMost(Duration.ofSeconds(5)).size());
+    }
+
+    @Test
+    void callsBeyondTheBulkheadAreRejected() throws Exception {
+        StubUsersServer.delayMillis = 500;
+
+        // bulkhead of 2 with 1 queued call in this resource
+        List<CompletableFuture<List<UserDto>>> admitted = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            admitted.add(client.fetchUsers().subscribeAsCompletionStage());
+        }
+        assertThrows(BulkheadException.class, () -> client.fetchUsers().await().atMost(Duration.ofSeconds(1)));
+        for (CompletableFuture<List<UserDto>> call : admitted) {
+            assertEquals(2, call.get(5, TimeUnit.SECONDS).size());
+        }
+        assertEquals(3, StubUsersServer.REQUESTS.get());
+    }
+
+    @Test
+    void breakerOpensAfterRepeatedFailures() {
+        StubUsersServer.status = 500;
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RuntimeException.class, () -> client.fetchUsers().await().atMost(Duration.ofSeconds(8)));
+        }
+        int requestsBeforeOpen = StubUsersServer.REQUESTS.get();
+        assertThrows(CircuitBreakerOpenException.class, () -> client.fetchUsers().await().atMost(Duration.ofSeconds(8)));
+        assertEquals(requestsBeforeOpen, StubUsersServer.REQUESTS.get());
+    }
+}
@@ -0,0 +1,185 @@
+package org.quarkus.assignment.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.quarkus.assignment.model.Product;
+import org.quarkus.assignment.model.SortOrder;
+import org.quarkus.assignment.util.ProductETags;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapProductStoreTest {
+
+    private static final long ARENA_BYTES = 1024 * 1024;
+
+    @TempDir
+    Path dir;
+
+    OffHeapProductStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = open(dir, 100);
+    }
+
+    @Test
+    void insertsReadsAndRejectsDuplicates() {
+        long before = ProductETags.firstVersion();
+        assertEquals(0, store.insertUnordered(List.of(product(2L, "Pear", 3.5, 4), product(1L, "Äpfel", null, null))).await().indefinitely());
+        assertEquals(1, store.insertUnordered(List.of(product(1L, "Other", 1.0, 1), product(3L, "Plum", 2.0, 9))).await().indefinitely());
+
+        Product apple = store.findById(1L).await().indefinitely();
+        assertEquals("Äpfel", apple.getName());
+        assertEquals("Äpfel description", apple.getDescription());
+        assertNull(apple.getPrice());
+        assertNull(apple.getQuantity());
+        assertTrue(apple.getVersion() > before);
+        assertNull(store.findById(42L).await().indefinitely());
+        assertEquals(List.of(1L, 2L, 3L), ids(store.listAll().await().indefinitely()));
+        assertEquals(List.of(2L, 3L), ids(store.findByIds(List.of(3L, 42L, 2L)).await().indefinitely()).stream().sorted().toList());
+        assertEquals(List.of(2L, 3L), ids(store.listAfter(1L, 5).await().indefinitely()));
+        assertEquals(List.of(1L), ids(store.listAfter(null, 1).await().indefinitely()));
+    }
+
+    @Test
+    void replacesAndPatchesWithVersionBumps() {
+        store.insertUnordered(List.of(product(1L, "Apple", 1.0, 5))).await().indefinitely();
+        long first = store.findById(1L).await().indefinitely().getVersion();
+
+        Product replacement = product(1L, "Apple with a much longer name", 2.0, null);
+        assertEquals(1, store.replaceAll(List.of(replacement, product(2L, "Pear", 3.0, 1))).await().indefinitely());
+        assertEquals(first + 1, replacement.getVersion());
+        Product replaced = store.findById(1L).await().indefinitely();
+        assertEquals("Apple with a much longer name", replaced.getName());
+        assertNull(replaced.getQuantity());
+
+        Product patch = new Product();
+        patch.setId(1L);
+        patch.setName("Fig");
+        patch.setQuantity(7);
+        Product created = new Product();
+        created.setId(9L);
+        created.setPrice(4.0);
+        assertEquals(new UpsertCounts(1, 1), store.upsertFields(List.of(patch, created)).await().indefinitely());
+        Product patched = store.findById(1L).await().indefinitely();
+        assertEquals("Fig", patched.getName());
+        assertEquals("Apple with a much longer name description", patched.getDescription());
+        assertEquals(2.0, patched.getPrice());
+        assertEquals(7, patched.getQuantity());
+        assertEquals(first + 2, patched.getVersion());
+        assertTrue(store.findById(9L).await().indefinitely().getVersion() > first + 2);
+    }
+
+    @Test
+    void reservesOnlyAvailableStock() {
+        store.insertUnordered(List.of(product(1L, "Apple", 1.0, 5), product(2L, "Pear", 1.0, null))).await().indefinitely();
+        long first = store.findById(1L).await().indefinitely().getVersion();
+
+        assertEquals(2, store.reserve(1L, 3).await().indefinitely().getQuantity());
+        assertNull(store.reserve(1L, 3).await().indefinitely());
+        assertNull(store.reserve(2L, 1).await().indefinitely());
+        assertNull(store.reserve(42L, 1).await().indefinitely());
+        store.release(1L, 3).await().indefinitely();
+        Product apple = store.findById(1L).await().indefinitely();
+        assertEquals(5, apple.getQuantity());
+        assertEquals(first + 2, apple.getVersion());
+    }
+
+    @Test
+    void sortsByPriceWithMissingPricesLowest() {
+        store.insertUnordered(List.of(product(1L, "a", 5.0, 1), product(2L, "b", null, 1), product(3L, "c", 1.0, 1), product(4L, "d", 5.0, 1)))
+            .await().indefinitely();
+
+        assertEquals(List.of(2L, 3L, 1L, 4L), ids(store.listByPrice(SortOrder.ASC).await().indefinitely()));
+        assertEquals(List.of(4L, 1L, 3L, 2L), ids(store.listByPrice(SortOrder.DESC).await().indefinitely()));
+    }
+
+    @Test
+    void deletesAndReusesSlots() throws Exception {
+        store = open(dir.resolve("small"), 2);
+        store.insertUnordered(List.of(product(1L, "Apple", 1.0, 1), product(2L, "Pear", 1.0, 1))).await().indefinitely();
+        assertThrows(IllegalStateException.class, () -> store.insertUnordered(List.of(product(3L, "Plum", 1.0, 1))).await().indefinitely());
+
+        long deletedVersion = store.findById(1L).await().indefinitely().getVersion();
+        assertTrue(store.deleteById(1L).await().indefinitely());
+        assertFalse(store.deleteById(1L).await().indefinitely());
+        store.insertUnordered(List.of(product(3L, "Plum", 1.0, 1))).await().indefinitely();
+        assertNull(store.findById(1L).await().indefinitely());
+        // a re-created product never repeats a version, and so an ETag, of the deleted one
+        assertTrue(store.deleteById(3L).await().indefinitely());
+        store.insertUnordered(List.of(product(1L, "Apple", 1.0, 1))).await().indefinitely();
+        assertTrue(store.findById(1L).await().indefinitely().getVersion() > deletedVersion);
+        assertTrue(store.deleteById(1L).await().indefinitely());
+        store.insertUnordered(List.of(product(3L, "Plum", 1.0, 1))).await().indefinitely();
+        assertEquals("Plum", store.findById(3L).await().indefinitely().getName());
+        assertEquals(List.of(2L, 3L), ids(store.listAll().await().indefinitely()));
+    }
+
+    @Test
+    void survivesReopen() throws Exception {
+        store.insertUnordered(List.of(product(1L, "Apple", 1.0, 5), product(2L, "Pear", 2.0, 6), product(3L, "Plum", 3.0, 7)))
+            .await().indefinitely();
+        long first = store.findById(3L).await().indefinitely().getVersion();
+        store.deleteById(2L).await().indefinitely();
+        store.reserve(3L, 2).await().indefinitely();
+        store.close();
+
+        // Capacity may grow between runs
+        OffHeapProductStore reopened = open(dir, 200);
+        assertEquals(List.of(1L, 3L), ids(reopened.listAll().await().indefinitely()));
+        Product plum = reopened.findById(3L).await().indefinitely();
+        assertEquals("Plum", plum.getName());
+        assertEquals(5, plum.getQuantity());
+        assertEquals(first + 1, plum.getVersion());
+        assertThrows(IllegalStateException.class, () -> open(dir, 50));
+    }
+
+    @Test
+    void keepsIndexConsistentUnderChurn() throws Exception {
+        int count = 5_000;
+        store = open(dir.resolve("churn"), count);
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            products.add(product(id * 7919, "p" + id, (double) id, 1));
+        }
+        store.insertUnordered(products).await().indefinitely();
+        for (long id = 1; id <= count; id += 2) {
+            assertTrue(store.deleteById(id * 7919).await().indefinitely());
+        }
+        for (long id = 1; id <= count; id++) {
+            Product found = store.findById(id * 7919).await().indefinitely();
+            if (id % 2 == 1) {
+                assertNull(found);
+            } else {
+                assertEquals("p" + id, found.getName());
+            }
+        }
+        assertEquals(count / 2, store.listAll().await().indefinitely().size());
+    }
+
+    private static OffHeapProductStore open(Path dir, int maxProducts) throws Exception {
+        OffHeapProductStore opened = new OffHeapProductStore();
+        opened.open(dir, maxProducts, ARENA_BYTES);
+        return opened;
+    }
+
+    private static Product product(long id, String name, Double price, Integer quantity) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setDescription(name + " description");
+        p.setPrice(price);
+        p.setQuantity(quantity);
+        return p;
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).collect(Collectors.toList());
+    }
+}
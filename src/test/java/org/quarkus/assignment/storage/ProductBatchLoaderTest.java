@@ -0,0 +1,128 @@
+package org.quarkus.assignment.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.quarkus.assignment.model.Product;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+
+class ProductBatchLoaderTest {
+
+    ProductBatchLoader loader;
+    ProductStore store;
+    SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        store = Mockito.mock(ProductStore.class);
+        Mockito.when(store.findByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            // Even ids exist
+            return Uni.createFrom().item(ids.stream().filter(id -> id % 2 == 0).map(ProductBatchLoaderTest::product).toList());
+        });
+        registry = new SimpleMeterRegistry();
+        loader = new ProductBatchLoader();
+        loader.enabled = true;
+        loader.window = Duration.ofMillis(50);
+        loader.maxBatchSize = 3;
+        loader.store = store;
+        loader.registry = registry;
+        loader.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        loader.shutdown();
+    }
+
+    @Test
+    void lookupsWithinTheWindow_shareOneQuery() throws Exception {
+        CompletableFuture<Product> two = loader.load(2).subscribeAsCompletionStage();
+        CompletableFuture<Product> twoAgain = loader.load(2).subscribeAsCompletionStage();
+        CompletableFuture<Product> three = loader.load(3).subscribeAsCompletionStage();
+
+        assertEquals(2L, two.get(5, TimeUnit.SECONDS).getId());
+        assertSame(two.get(), twoAgain.get(5, TimeUnit.SECONDS));
+        assertNull(three.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(Set.of(2L, 3L)), queriedIds(1));
+        assertEquals(1, registry.get("products.batch.size").summary().count());
+        assertEquals(2.0, registry.get("products.batch.size").summary().totalAmount());
+        assertEquals(3, registry.get("products.batch.wait").timer().count());
+        assertTrue(registry.get("products.batch.wait").timer().max(TimeUnit.MILLISECONDS) >= 40);
+    }
+
+    @Test
+    void fullBatches_areSentWithoutWaitingForTheWindow() throws Exception {
+        loader.window = Duration.ofHours(1);
+        List<CompletableFuture<Product>> first = List.of(
+            loader.load(2).subscribeAsCompletionStage(),
+            loader.load(4).subscribeAsCompletionStage(),
+            loader.load(6).subscribeAsCompletionStage());
+        for (CompletableFuture<Product> result : first) {
+            assertNotNull(result.get(5, TimeUnit.SECONDS));
+        }
+        CompletableFuture<Product> next = loader.load(8).subscribeAsCompletionStage();
+
+        assertFalse(next.isDone());
+        assertEquals(List.of(Set.of(2L, 4L, 6L)), queriedIds(1));
+    }
+
+    @Test
+    void cancelledCaller_doesNotFailOthersWaitingForTheSameId() throws Exception {
+        Cancellable cancelled = loader.load(2).subscribe().with(product -> { });
+        CompletableFuture<Product> waiting = loader.load(2).subscribeAsCompletionStage();
+        cancelled.cancel();
+
+        assertEquals(2L, waiting.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(List.of(Set.of(2L)), queriedIds(1));
+    }
+
+    @Test
+    void failures_reachEveryWaiter() {
+        Mockito.when(store.findByIds(anyCollection())).thenReturn(Uni.createFrom().failure(new IllegalStateException("down")));
+        CompletableFuture<Product> two = loader.load(2).subscribeAsCompletionStage();
+        CompletableFuture<Product> three = loader.load(3).subscribeAsCompletionStage();
+
+        assertInstanceOf(IllegalStateException.class, assertThrows(ExecutionException.class, () -> two.get(5, TimeUnit.SECONDS)).getCause());
+        assertInstanceOf(IllegalStateException.class, assertThrows(ExecutionException.class, () -> three.get(5, TimeUnit.SECONDS)).getCause());
+    }
+
+    @Test
+    void disabled_looksUpEachIdAlone() {
+        loader.enabled = false;
+        Mockito.when(store.findById(2L)).thenReturn(Uni.createFrom().item(product(2L)));
+
+        assertEquals(2L, loader.load(2).await().indefinitely().getId());
+        Mockito.verify(store, Mockito.never()).findByIds(anyCollection());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Set<Long>> queriedIds(int queries) {
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(store, Mockito.times(queries)).findByIds(ids.capture());
+        return ids.getAllValues().stream().map(HashSet::new).map(set -> (Set<Long>) set).toList();
+    }
+
+    private static Product product(long id) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName("p" + id);
+        return p;
+    }
+}
@@ -0,0 +1,91 @@
+package org.quarkus.assignment.support;
+
+import com.sun.net.httpserver.HttpServer;
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the JSONPlaceholder users API. Counts requests and answers after a configurable delay
+ * (optionally longer for the first request) with a configurable status. The body can stall halfway through.
+ */
+public class StubUsersServer implements QuarkusTestResourceLifecycleManager {
+
+    public static final AtomicInteger REQUESTS = new AtomicInteger();
+    public static volatile long delayMillis = 0;
+    public static volatile long firstRequestDelayMillis = 0;
+    public static volatile int status = 200;
+    public static volatile long bodyStallMillis = 0;
+
+    private static final String BODY = "[{\"id\":1,\"name\":\"Leanne Graham\",\"username\":\"Bret\"},"
+            + "{\"id\":2,\"name\":\"Ervin Howell\",\"username\":\"Antonette\"}]";
+
+    private HttpServer server;
+
+    @Override
+    public Map<String, String> start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/users", exchange -> {
+            int request = REQUESTS.incrementAndGet();
+            try {
+                Thread.sleep(request == 1 ? delayMillis + firstRequestDelayMillis : delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                int half = body.length / 2;
+                out.write(body, 0, half);
+                out.flush();
+                if (bodyStallMillis > 0) {
+                    try {
+                        Thread.sleep(bodyStallMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                out.write(body, half, body.length - half);
+            }
+        });
+        server.start();
+        return Map.of(
+                "app.thirdparty.base-url", "http://localhost:" + server.getAddress().getPort(),
+                "app.thirdparty.users.ttl", "0.3S",
+                "app.thirdparty.users.stale-while-revalidate", "30S",
+                "app.thirdparty.hedge-delay", "1S",
+                "app.thirdparty.request-timeout", "2S",
+                "org.quarkus.assignment.thirdparty.ThirdPartyClient/fetchUsers/Bulkhead/value", "2",
+                "org.quarkus.assignment.thirdparty.ThirdPartyClient/fetchUsers/Bulkhead/waitingTaskQueue", "1",
+                "org.quarkus.assignment.thirdparty.ThirdPartyClient/fetchUsers/CircuitBreaker/requestVolumeThreshold", "4",
+                "org.quarkus.assignment.thirdparty.ThirdPartyClient/fetchUsers/CircuitBreaker/delay", "60000");
+    }
+
+    /** Resets counters and behaviour between tests. */
+    public static void reset() {
+        REQUESTS.set(0);
+        delayMillis = 0;
+        firstRequestDelayMillis = 0;
+        status = 200;
+        bodyStallMillis = 0;
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+}
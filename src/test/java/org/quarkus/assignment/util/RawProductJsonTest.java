@@ -0,0 +1,89 @@
+package org.quarkus.assignment.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.quarkus.assignment.dto.ProductPageResponse;
+import org.quarkus.assignment.dto.ProductResponse;
+import org.quarkus.assignment.mapper.ProductMapper;
+import org.quarkus.assignment.model.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RawProductJsonTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void matchesJacksonOutputOfMappedProducts() throws Exception {
+        RawBsonDocument full = raw(new Document("_id", 1L).append("name", "Apple").append("description", "Crisp")
+            .append("price", 2.5).append("quantity", 4).append("version", 3L));
+        // Reordered, partly missing or null, stored with other numeric types and extra fields
+        RawBsonDocument odd = raw(new Document("version", 7).append("extra", new Document("nested", List.of(1, "x")))
+            .append("quantity", 9L).append("oid", new ObjectId()).append("price", 10).append("when", new Date(0))
+            .append("flag", true).append("_id", 2.0).append("description", null));
+        RawBsonDocument text = raw(new Document("_id", 3L).append("name", "Quote \" slash \\ tab \t nl \n ctl \u0001 del \u007f")
+            .append("description", "Ünïcödé € 🍎 </script>").append("price", 1e-7));
+
+        String expected = mapper.writeValueAsString(List.of(
+            response(1L, "Apple", "Crisp", 2.5, 4, 3L),
+            response(2L, null, null, 10.0, 9, 7L),
+            response(3L, "Quote \" slash \\ tab \t nl \n ctl \u0001 del \u007f", "Ünïcödé € 🍎 </script>", 1e-7, null, null)));
+        RawProductJson.Rendered list = RawProductJson.list(List.of(full, odd, text));
+
+        assertEquals(expected, body(list));
+        assertEquals(ProductETags.of(List.of(product(1L, 3L), product(2L, 7L), product(3L, null))), list.getTag());
+        assertEquals(mapper.writeValueAsString(response(1L, "Apple", "Crisp", 2.5, 4, 3L)), body(RawProductJson.one(full)));
+        assertEquals(ProductETags.ofVersion(3), RawProductJson.one(full).getTag());
+    }
+
+    @Test
+    void rendersPagesWithCursorOnlyWhenFull() throws Exception {
+        List<RawBsonDocument> documents = List.of(raw(new Document("_id", 5L).append("version", 1L)), raw(new Document("_id", 8L)));
+
+        String full = mapper.writeValueAsString(ProductPageResponse.builder()
+            .item(response(5L, null, null, null, null, 1L)).item(response(8L, null, null, null, null, null)).nextCursor(8L).build());
+        assertEquals(full, body(RawProductJson.page(documents, 2)));
+        assertTrue(body(RawProductJson.page(documents, 3)).endsWith(",\"nextCursor\":null}"));
+        assertEquals("{\"items\":[],\"nextCursor\":null}", body(RawProductJson.page(List.of(), 3)));
+    }
+
+    @Test
+    void rejectsValuesThePojoCodecCouldNotDecode() {
+        assertThrows(IllegalStateException.class, () -> RawProductJson.one(raw(new Document("_id", 1L).append("quantity", 1.5))));
+        assertThrows(IllegalStateException.class, () -> RawProductJson.one(raw(new Document("_id", 1L).append("name", 42))));
+    }
+
+    private static RawBsonDocument raw(Document document) {
+        return new RawBsonDocument(document, new DocumentCodec());
+    }
+
+    private static String body(RawProductJson.Rendered rendered) {
+        return rendered.getBody().toString(StandardCharsets.UTF_8);
+    }
+
+    private static ProductResponse response(Long id, String name, String description, Double price, Integer quantity, Long version) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setDescription(description);
+        p.setPrice(price);
+        p.setQuantity(quantity);
+        p.setVersion(version);
+        return ProductMapper.toResponse(p);
+    }
+
+    private static Product product(Long id, Long version) {
+        Product p = new Product();
+        p.setId(id);
+        p.setVersion(version);
+        return p;
+    }
+}